@@ -0,0 +1,49 @@
+package tacos;
+
+/**
+ * Ingredient ids are codes of up to four ASCII characters, which fit
+ * in an int one byte per character. Packed codes are positive, sort
+ * the same way as the ids they came from, and are never zero.
+ */
+public final class IngredientCodes {
+
+  private IngredientCodes() {
+  }
+
+  /**
+   * Packs an id into an int, left-aligned, or returns -1 if the id
+   * isn't one to four ASCII characters.
+   */
+  public static int pack(String id) {
+    int length = id.length();
+    if (length == 0 || length > 4) {
+      return -1;
+    }
+    int packed = 0;
+    for (int i = 0; i < length; i++) {
+      char c = id.charAt(i);
+      if (c == 0 || c > 0x7F) {
+        return -1;
+      }
+      packed = (packed << 8) | c;
+    }
+    return packed << (8 * (4 - length));
+  }
+
+  /**
+   * Reverses {@link #pack(String)}.
+   */
+  public static String unpack(int packed) {
+    char[] chars = new char[4];
+    int length = 0;
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      int c = (packed >>> shift) & 0xFF;
+      if (c == 0) {
+        break;
+      }
+      chars[length++] = (char) c;
+    }
+    return new String(chars, 0, length);
+  }
+
+}
@@ -1,4 +1,6 @@
 package tacos;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
@@ -53,4 +55,14 @@ public class TacoOrder implements Serializable {
     this.tacos.add(taco);
   }
 
+  // Sessions hold the compact form from TacoOrderCodec rather than the
+  // default serialized form, which Taco and IngredientRef don't support.
+  private Object writeReplace() {
+    return new TacoOrderCodec.SerializedForm(this);
+  }
+
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Expected a TacoOrderCodec form");
+  }
+
 }
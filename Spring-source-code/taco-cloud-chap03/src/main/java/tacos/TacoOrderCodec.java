@@ -0,0 +1,327 @@
+package tacos;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * A compact binary form for draft orders, used in place of default Java
+ * serialization when sessions are persisted or replicated and for the
+ * draft cookie.
+ *
+ * Ids and lengths are varints, timestamps are 8-byte millis and strings
+ * are length-prefixed UTF-8. A flags byte records which ids and
+ * timestamps are present, and strings carry their own null marker.
+ * Ingredient ids are written as their 4-byte {@link IngredientCodes}
+ * code; the rare id that can't be packed is written as a zero code
+ * followed by the string.
+ *
+ * Null entries in the tacos or ingredients lists are not kept, and a
+ * null list decodes as an empty one.
+ */
+public final class TacoOrderCodec {
+
+  private static final byte FORMAT = 1;
+
+  private static final int HAS_ID = 1;
+  private static final int HAS_TIMESTAMP = 2;
+
+  private TacoOrderCodec() {
+  }
+
+  public static byte[] encode(TacoOrder order) {
+    Writer out = new Writer();
+    out.writeByte(FORMAT);
+    out.writeByte(flags(order.getId(), order.getPlacedAt()));
+    if (order.getId() != null) {
+      out.writeVarLong(order.getId());
+    }
+    if (order.getPlacedAt() != null) {
+      out.writeLong(order.getPlacedAt().getTime());
+    }
+    out.writeString(order.getDeliveryName());
+    out.writeString(order.getDeliveryStreet());
+    out.writeString(order.getDeliveryCity());
+    out.writeString(order.getDeliveryState());
+    out.writeString(order.getDeliveryZip());
+    out.writeString(order.getCcNumber());
+    out.writeString(order.getCcExpiration());
+    out.writeString(order.getCcCVV());
+
+    List<Taco> tacos = nonNull(order.getTacos());
+    out.writeVarLong(tacos.size());
+    for (Taco taco : tacos) {
+      writeTaco(out, taco);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * @throws IllegalArgumentException if the bytes aren't an encoded order
+   */
+  public static TacoOrder decode(byte[] bytes) {
+    return decode(bytes, 0, bytes.length);
+  }
+
+  /**
+   * @throws IllegalArgumentException if the bytes aren't an encoded order
+   */
+  public static TacoOrder decode(byte[] bytes, int offset, int length) {
+    Reader in = new Reader(bytes, offset, length);
+    if (in.readByte() != FORMAT) {
+      throw new IllegalArgumentException("Unknown draft order format");
+    }
+    TacoOrder order = new TacoOrder();
+    int flags = in.readByte();
+    if ((flags & HAS_ID) != 0) {
+      order.setId(in.readVarLong());
+    }
+    if ((flags & HAS_TIMESTAMP) != 0) {
+      order.setPlacedAt(new Date(in.readLong()));
+    }
+    order.setDeliveryName(in.readString());
+    order.setDeliveryStreet(in.readString());
+    order.setDeliveryCity(in.readString());
+    order.setDeliveryState(in.readString());
+    order.setDeliveryZip(in.readString());
+    order.setCcNumber(in.readString());
+    order.setCcExpiration(in.readString());
+    order.setCcCVV(in.readString());
+
+    int tacos = in.readCount();
+    for (int i = 0; i < tacos; i++) {
+      order.addTaco(readTaco(in));
+    }
+    if (!in.isDone()) {
+      throw new IllegalArgumentException("Trailing bytes after draft order");
+    }
+    return order;
+  }
+
+  private static void writeTaco(Writer out, Taco taco) {
+    out.writeByte(flags(taco.getId(), taco.getCreatedAt()));
+    if (taco.getId() != null) {
+      out.writeVarLong(taco.getId());
+    }
+    if (taco.getCreatedAt() != null) {
+      out.writeLong(taco.getCreatedAt().getTime());
+    }
+    out.writeString(taco.getName());
+
+    List<IngredientRef> ingredients = nonNull(taco.getIngredients());
+    out.writeVarLong(ingredients.size());
+    for (IngredientRef ref : ingredients) {
+      String id = ref.getIngredient();
+      int code = id == null ? -1 : IngredientCodes.pack(id);
+      if (code > 0) {
+        out.writeInt(code);
+      } else {
+        out.writeInt(0);
+        out.writeString(id);
+      }
+    }
+  }
+
+  private static Taco readTaco(Reader in) {
+    Taco taco = new Taco();
+    int flags = in.readByte();
+    if ((flags & HAS_ID) != 0) {
+      taco.setId(in.readVarLong());
+    }
+    taco.setCreatedAt((flags & HAS_TIMESTAMP) != 0
+        ? new Date(in.readLong()) : null);
+    taco.setName(in.readString());
+
+    int ingredients = in.readCount();
+    for (int i = 0; i < ingredients; i++) {
+      int code = in.readInt();
+      taco.getIngredients().add(new IngredientRef(
+          code != 0 ? IngredientCodes.unpack(code) : in.readString()));
+    }
+    return taco;
+  }
+
+  private static int flags(Long id, Date timestamp) {
+    return (id != null ? HAS_ID : 0) | (timestamp != null ? HAS_TIMESTAMP : 0);
+  }
+
+  private static <T> List<T> nonNull(List<T> list) {
+    if (list == null) {
+      return Collections.emptyList();
+    }
+    if (list.contains(null)) {
+      return list.stream().filter(Objects::nonNull)
+          .collect(Collectors.toList());
+    }
+    return list;
+  }
+
+  /**
+   * What a {@link TacoOrder} is replaced with when it goes through Java
+   * serialization, so that session stores get the compact form too.
+   */
+  static class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] data;
+
+    SerializedForm(TacoOrder order) {
+      this.data = encode(order);
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+      try {
+        return decode(data);
+      } catch (IllegalArgumentException e) {
+        throw new InvalidObjectException(e.getMessage());
+      }
+    }
+
+  }
+
+  private static class Writer {
+
+    private byte[] buf = new byte[128];
+    private int pos;
+
+    void writeByte(int b) {
+      ensure(1);
+      buf[pos++] = (byte) b;
+    }
+
+    void writeInt(int v) {
+      ensure(4);
+      buf[pos++] = (byte) (v >>> 24);
+      buf[pos++] = (byte) (v >>> 16);
+      buf[pos++] = (byte) (v >>> 8);
+      buf[pos++] = (byte) v;
+    }
+
+    void writeLong(long v) {
+      writeInt((int) (v >>> 32));
+      writeInt((int) v);
+    }
+
+    void writeVarLong(long v) {
+      ensure(10);
+      while ((v & ~0x7FL) != 0) {
+        buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      buf[pos++] = (byte) v;
+    }
+
+    // Length plus one, so that zero can stand for null.
+    void writeString(String s) {
+      if (s == null) {
+        writeVarLong(0);
+        return;
+      }
+      byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(utf8.length + 1L);
+      ensure(utf8.length);
+      System.arraycopy(utf8, 0, buf, pos, utf8.length);
+      pos += utf8.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buf, pos);
+    }
+
+    private void ensure(int n) {
+      if (pos + n > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+      }
+    }
+
+  }
+
+  private static class Reader {
+
+    private final byte[] buf;
+    private final int end;
+    private int pos;
+
+    Reader(byte[] buf, int offset, int length) {
+      if (offset < 0 || length < 0 || offset + length > buf.length) {
+        throw new IllegalArgumentException("Bad offset or length");
+      }
+      this.buf = buf;
+      this.pos = offset;
+      this.end = offset + length;
+    }
+
+    int readByte() {
+      require(1);
+      return buf[pos++] & 0xFF;
+    }
+
+    int readInt() {
+      require(4);
+      int v = ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16)
+          | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+      pos += 4;
+      return v;
+    }
+
+    long readLong() {
+      return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    long readVarLong() {
+      long v = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        v |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return v;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // A count can't be more than the bytes left, since every entry
+    // takes at least one, which keeps a bad count from allocating much.
+    int readCount() {
+      long count = readVarLong();
+      if (count < 0 || count > end - pos) {
+        throw new IllegalArgumentException("Bad count " + count);
+      }
+      return (int) count;
+    }
+
+    String readString() {
+      long length = readVarLong();
+      if (length == 0) {
+        return null;
+      }
+      if (length < 0 || length - 1 > end - pos) {
+        throw new IllegalArgumentException("Bad string length " + length);
+      }
+      int n = (int) (length - 1);
+      String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+      pos += n;
+      return s;
+    }
+
+    boolean isDone() {
+      return pos == end;
+    }
+
+    private void require(int n) {
+      if (end - pos < n) {
+        throw new IllegalArgumentException("Truncated draft order");
+      }
+    }
+
+  }
+
+}
@@ -1,16 +1,25 @@
 package tacos.data;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.asm.Type;
-import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,31 +31,73 @@ import tacos.TacoOrder;
 @Repository
 public class JdbcOrderRepository implements OrderRepository {
 
+  private static final String INSERT_ORDER =
+      "insert into Taco_Order "
+      + "(delivery_name, delivery_street, delivery_city, "
+      + "delivery_state, delivery_zip, cc_number, "
+      + "cc_expiration, cc_cvv, placed_at) "
+      + "values (?,?,?,?,?,?,?,?,?)";
+
+  private static final String INSERT_TACO =
+      "insert into Taco "
+      + "(name, created_at, taco_order, taco_order_key) "
+      + "values (?, ?, ?, ?)";
+
+  private static final String INSERT_INGREDIENT_REF =
+      "insert into Ingredient_Ref (ingredient, taco, taco_key) "
+      + "values (?, ?, ?)";
+
+  // Loads orders together with their tacos and ingredient refs in one
+  // query; orders without tacos still come back thanks to the outer joins.
+  private static final String SELECT_ORDER_GRAPH =
+      "select o.id, o.delivery_name, o.delivery_street, o.delivery_city, "
+      + "o.delivery_state, o.delivery_zip, o.cc_number, o.cc_expiration, "
+      + "o.cc_cvv, o.placed_at, "
+      + "t.id as taco_id, t.name as taco_name, t.created_at as taco_created_at, "
+      + "r.ingredient "
+      + "from Taco_Order o "
+      + "left join Taco t on t.taco_order = o.id "
+      + "left join Ingredient_Ref r on r.taco = t.id ";
+
+  private static final String ORDER_GRAPH_ORDERING =
+      "order by o.id, t.taco_order_key, r.taco_key";
+
+  // Keeps IN lists to a size every supported database accepts.
+  private static final int MAX_IN_LIST = 500;
+
   private JdbcOperations jdbcOperations;
 
+  // Statement factories are built once and shared by every save,
+  // rather than being rebuilt for each order and each taco.
+  private final PreparedStatementCreatorFactory orderInsert;
+  private final PreparedStatementCreatorFactory tacoInsert;
+
   public JdbcOrderRepository(JdbcOperations jdbcOperations) {
     this.jdbcOperations = jdbcOperations;
+
+    this.orderInsert = new PreparedStatementCreatorFactory(
+        INSERT_ORDER,
+        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+        Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP);
+    this.orderInsert.setReturnGeneratedKeys(true);
+
+    this.tacoInsert = new PreparedStatementCreatorFactory(
+        INSERT_TACO,
+        Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT);
   }
 
+  /**
+   * Saves an order in three round trips regardless of its size: one
+   * insert for the order, one batch for all of its tacos and one
+   * batch for all of their ingredient references.
+   */
   @Override
   @Transactional
   public TacoOrder save(TacoOrder order) {
-    PreparedStatementCreatorFactory pscf =
-      new PreparedStatementCreatorFactory(
-        "insert into Taco_Order "
-        + "(delivery_name, delivery_street, delivery_city, "
-        + "delivery_state, delivery_zip, cc_number, "
-        + "cc_expiration, cc_cvv, placed_at) "
-        + "values (?,?,?,?,?,?,?,?,?)",
-        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
-        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
-        Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP
-    );
-    pscf.setReturnGeneratedKeys(true);
-
     order.setPlacedAt(new Date());
     PreparedStatementCreator psc =
-        pscf.newPreparedStatementCreator(
+        orderInsert.newPreparedStatementCreator(
             Arrays.asList(
                 order.getDeliveryName(),
                 order.getDeliveryStreet(),
@@ -64,105 +115,148 @@ public class JdbcOrderRepository implements OrderRepository {
     order.setId(orderId);
 
     List<Taco> tacos = order.getTacos();
-    int i=0;
-    for (Taco taco : tacos) {
-      saveTaco(orderId, i++, taco);
+    if (!tacos.isEmpty()) {
+      saveTacos(orderId, tacos);
+      saveIngredientRefs(tacos);
     }
 
     return order;
   }
 
-  private long saveTaco(Long orderId, int orderKey, Taco taco) {
-    taco.setCreatedAt(new Date());
-    PreparedStatementCreatorFactory pscf =
-            new PreparedStatementCreatorFactory(
-        "insert into Taco "
-        + "(name, created_at, taco_order, taco_order_key) "
-        + "values (?, ?, ?, ?)",
-        Types.VARCHAR, Types.TIMESTAMP, Type.LONG, Type.LONG
-    );
-    pscf.setReturnGeneratedKeys(true);
-
-    PreparedStatementCreator psc =
-        pscf.newPreparedStatementCreator(
-            Arrays.asList(
-                taco.getName(),
-                taco.getCreatedAt(),
-                orderId,
-                orderKey));
-
-    GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
-    jdbcOperations.update(psc, keyHolder);
-    long tacoId = keyHolder.getKey().longValue();
-    taco.setId(tacoId);
-
-    saveIngredientRefs(tacoId, taco.getIngredients());
+  private void saveTacos(long orderId, List<Taco> tacos) {
+    jdbcOperations.execute(
+        (Connection con) -> con.prepareStatement(
+            INSERT_TACO, Statement.RETURN_GENERATED_KEYS),
+        (PreparedStatement ps) -> {
+          int orderKey = 0;
+          for (Taco taco : tacos) {
+            taco.setCreatedAt(new Date());
+            tacoInsert.newPreparedStatementSetter(
+                Arrays.asList(
+                    taco.getName(),
+                    taco.getCreatedAt(),
+                    orderId,
+                    orderKey++))
+                .setValues(ps);
+            ps.addBatch();
+          }
+          ps.executeBatch();
 
-    return tacoId;
+          try (ResultSet keys = ps.getGeneratedKeys()) {
+            for (Taco taco : tacos) {
+              if (!keys.next()) {
+                throw new DataRetrievalFailureException(
+                    "Expected " + tacos.size() + " generated taco ids");
+              }
+              taco.setId(keys.getLong(1));
+            }
+          }
+          return null;
+        });
   }
 
-  private void saveIngredientRefs(
-      long tacoId, List<IngredientRef> ingredientRefs) {
-    int key = 0;
-    for (IngredientRef ingredientRef : ingredientRefs) {
-      jdbcOperations.update(
-          "insert into Ingredient_Ref (ingredient, taco, taco_key) "
-          + "values (?, ?, ?)",
-          ingredientRef.getIngredient(), tacoId, key++);
+  private void saveIngredientRefs(List<Taco> tacos) {
+    List<Object[]> batchArgs = new ArrayList<>();
+    for (Taco taco : tacos) {
+      int key = 0;
+      for (IngredientRef ingredientRef : taco.getIngredients()) {
+        batchArgs.add(new Object[] {
+            ingredientRef.getIngredient(), taco.getId(), key++ });
+      }
+    }
+    if (!batchArgs.isEmpty()) {
+      jdbcOperations.batchUpdate(INSERT_INGREDIENT_REF, batchArgs,
+          new int[] { Types.VARCHAR, Types.BIGINT, Types.BIGINT });
     }
   }
 
   @Override
   public Optional<TacoOrder> findById(Long id) {
-    try {
-      TacoOrder order = jdbcOperations.queryForObject(
-          "select id, delivery_name, delivery_street, delivery_city, "
-              + "delivery_state, delivery_zip, cc_number, cc_expiration, "
-              + "cc_cvv, placed_at from Taco_Order where id=?",
-          (row, rowNum) -> {
-            TacoOrder tacoOrder = new TacoOrder();
-            tacoOrder.setId(row.getLong("id"));
-            tacoOrder.setDeliveryName(row.getString("delivery_name"));
-            tacoOrder.setDeliveryStreet(row.getString("delivery_street"));
-            tacoOrder.setDeliveryCity(row.getString("delivery_city"));
-            tacoOrder.setDeliveryState(row.getString("delivery_state"));
-            tacoOrder.setDeliveryZip(row.getString("delivery_zip"));
-            tacoOrder.setCcNumber(row.getString("cc_number"));
-            tacoOrder.setCcExpiration(row.getString("cc_expiration"));
-            tacoOrder.setCcCVV(row.getString("cc_cvv"));
-            tacoOrder.setPlacedAt(new Date(row.getTimestamp("placed_at").getTime()));
-            tacoOrder.setTacos(findTacosByOrderId(row.getLong("id")));
-            return tacoOrder;
-          }, id);
-      return Optional.of(order);
-    } catch (IncorrectResultSizeDataAccessException e) {
-      return Optional.empty();
-    }
+    List<TacoOrder> orders = jdbcOperations.query(
+        SELECT_ORDER_GRAPH + "where o.id=? " + ORDER_GRAPH_ORDERING,
+        new OrderGraphExtractor(),
+        id);
+    return orders.isEmpty() ?
+            Optional.empty() :
+            Optional.of(orders.get(0));
   }
 
-  private List<Taco> findTacosByOrderId(long orderId) {
-    return jdbcOperations.query(
-        "select id, name, created_at from Taco "
-        + "where taco_order=? order by taco_order_key",
-        (row, rowNum) -> {
-          Taco taco = new Taco();
-          taco.setId(row.getLong("id"));
-          taco.setName(row.getString("name"));
-          taco.setCreatedAt(new Date(row.getTimestamp("created_at").getTime()));
-          taco.setIngredients(findIngredientsByTacoId(row.getLong("id")));
-          return taco;
-        },
-        orderId);
+  @Override
+  public List<TacoOrder> findAllById(Collection<Long> ids) {
+    List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+    List<TacoOrder> orders = new ArrayList<>(idList.size());
+    for (int from = 0; from < idList.size(); from += MAX_IN_LIST) {
+      List<Long> chunk = idList.subList(
+          from, Math.min(from + MAX_IN_LIST, idList.size()));
+      String placeholders = String.join(",",
+          Collections.nCopies(chunk.size(), "?"));
+      orders.addAll(jdbcOperations.query(
+          SELECT_ORDER_GRAPH + "where o.id in (" + placeholders + ") "
+              + ORDER_GRAPH_ORDERING,
+          new OrderGraphExtractor(),
+          chunk.toArray()));
+    }
+    return orders;
   }
 
-  private List<IngredientRef> findIngredientsByTacoId(long tacoId) {
-    return jdbcOperations.query(
-        "select ingredient from Ingredient_Ref "
-        + "where taco = ? order by taco_key",
-        (row, rowNum) -> {
-          return new IngredientRef(row.getString("ingredient"));
-        },
-        tacoId);
+  /**
+   * Rebuilds {@link TacoOrder} graphs from the flattened rows of
+   * {@link #SELECT_ORDER_GRAPH}. Rows arrive grouped by order and then
+   * by taco, so each order and taco is completed as soon as its id
+   * changes and the result set is read in a single forward pass.
+   */
+  private static class OrderGraphExtractor
+      implements ResultSetExtractor<List<TacoOrder>> {
+
+    @Override
+    public List<TacoOrder> extractData(ResultSet rs) throws SQLException {
+      List<TacoOrder> orders = new ArrayList<>();
+      TacoOrder order = null;
+      Taco taco = null;
+      while (rs.next()) {
+        long orderId = rs.getLong("id");
+        if (order == null || order.getId() != orderId) {
+          order = mapOrder(rs);
+          orders.add(order);
+          taco = null;
+        }
+
+        long tacoId = rs.getLong("taco_id");
+        if (rs.wasNull()) {
+          continue;
+        }
+        if (taco == null || taco.getId() != tacoId) {
+          taco = new Taco();
+          taco.setId(tacoId);
+          taco.setName(rs.getString("taco_name"));
+          taco.setCreatedAt(
+              new Date(rs.getTimestamp("taco_created_at").getTime()));
+          order.addTaco(taco);
+        }
+
+        String ingredient = rs.getString("ingredient");
+        if (ingredient != null) {
+          taco.getIngredients().add(new IngredientRef(ingredient));
+        }
+      }
+      return orders;
+    }
+
+    private TacoOrder mapOrder(ResultSet row) throws SQLException {
+      TacoOrder tacoOrder = new TacoOrder();
+      tacoOrder.setId(row.getLong("id"));
+      tacoOrder.setDeliveryName(row.getString("delivery_name"));
+      tacoOrder.setDeliveryStreet(row.getString("delivery_street"));
+      tacoOrder.setDeliveryCity(row.getString("delivery_city"));
+      tacoOrder.setDeliveryState(row.getString("delivery_state"));
+      tacoOrder.setDeliveryZip(row.getString("delivery_zip"));
+      tacoOrder.setCcNumber(row.getString("cc_number"));
+      tacoOrder.setCcExpiration(row.getString("cc_expiration"));
+      tacoOrder.setCcCVV(row.getString("cc_cvv"));
+      tacoOrder.setPlacedAt(new Date(row.getTimestamp("placed_at").getTime()));
+      return tacoOrder;
+    }
+
   }
 
 }
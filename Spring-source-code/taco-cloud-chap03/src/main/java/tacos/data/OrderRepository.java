@@ -1,5 +1,7 @@
 package tacos.data;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import tacos.TacoOrder;
@@ -10,4 +12,6 @@ public interface OrderRepository {
 
   Optional<TacoOrder> findById(Long id);
 
+  List<TacoOrder> findAllById(Collection<Long> ids);
+
 }
@@ -0,0 +1,182 @@
+package tacos.web;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import tacos.TacoOrder;
+import tacos.TacoOrderCodec;
+
+/**
+ * Keeps the draft order on the client, in a signed cookie, so no node
+ * holds any state for it and any node can serve the next request.
+ *
+ * The cookie carries only the tacos, in the {@link TacoOrderCodec}
+ * form, never delivery or payment details, plus an expiry time. It's
+ * signed with HMAC-SHA256 under {@code taco.drafts.secret}; a cookie
+ * that has been tampered with, has expired or can't be read is ignored
+ * and the user starts a new draft. The cookie is HttpOnly, and Secure
+ * and SameSite as {@code taco.drafts.cookie-secure} and
+ * {@code cookie-same-site} say.
+ */
+@Component
+@ConditionalOnProperty(prefix="taco.drafts", name="store",
+                       havingValue="cookie")
+public class CookieDraftOrderStore implements DraftOrderStore {
+
+  static final String COOKIE_NAME = "tacoOrder";
+
+  // Leaves room for the cookie's name and attributes within the 4KB
+  // that browsers are required to store.
+  static final int MAX_TOKEN_LENGTH = 3800;
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final byte FORMAT = 2;
+  private static final int HEADER_LENGTH = 9;
+
+  private final SecretKeySpec key;
+  private final long ttlMillis;
+  private final boolean secure;
+  private final String sameSite;
+  private final Clock clock;
+
+  @Autowired
+  public CookieDraftOrderStore(DraftProps props) {
+    this(props, Clock.systemUTC());
+  }
+
+  CookieDraftOrderStore(DraftProps props, Clock clock) {
+    Assert.hasLength(props.getSecret(),
+        "taco.drafts.secret must be set to store drafts in cookies");
+    this.key = new SecretKeySpec(
+        props.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    Assert.isTrue(props.isCookieSecure()
+        || !"None".equals(props.getCookieSameSite()),
+        "taco.drafts.cookie-same-site=None needs cookie-secure");
+    this.ttlMillis = props.getTtl().toMillis();
+    this.secure = props.isCookieSecure();
+    this.sameSite = props.getCookieSameSite();
+    this.clock = clock;
+  }
+
+  @Override
+  public TacoOrder load(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies != null) {
+      for (Cookie cookie : cookies) {
+        if (COOKIE_NAME.equals(cookie.getName())) {
+          TacoOrder order = decode(cookie.getValue());
+          if (order != null) {
+            return order;
+          }
+        }
+      }
+    }
+    return new TacoOrder();
+  }
+
+  /**
+   * @throws DraftTooLargeException if the draft has grown too big to
+   *         fit in a cookie
+   */
+  @Override
+  public void save(TacoOrder order,
+      HttpServletRequest request, HttpServletResponse response) {
+    String token = encode(order);
+    if (token.length() > MAX_TOKEN_LENGTH) {
+      throw new DraftTooLargeException("Draft order is too large to store");
+    }
+    response.addCookie(cookie(token, (int) (ttlMillis / 1000)));
+  }
+
+  @Override
+  public void clear(HttpServletRequest request, HttpServletResponse response) {
+    response.addCookie(cookie("", 0));
+  }
+
+  String encode(TacoOrder order) {
+    TacoOrder draft = new TacoOrder();
+    draft.setTacos(order.getTacos());
+    byte[] body = TacoOrderCodec.encode(draft);
+    byte[] payload = ByteBuffer.allocate(HEADER_LENGTH + body.length)
+        .put(FORMAT)
+        .putLong(clock.millis() + ttlMillis)
+        .put(body)
+        .array();
+    Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+    return base64.encodeToString(payload) + "."
+        + base64.encodeToString(sign(payload));
+  }
+
+  /**
+   * @return the order, or {@code null} if the token isn't one this
+   *         store signed or has expired
+   */
+  TacoOrder decode(String token) {
+    int dot = token.indexOf('.');
+    if (dot < 0) {
+      return null;
+    }
+    byte[] payload;
+    byte[] signature;
+    try {
+      payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+      signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (!MessageDigest.isEqual(signature, sign(payload))) {
+      return null;
+    }
+
+    if (payload.length < HEADER_LENGTH) {
+      return null;
+    }
+    ByteBuffer header = ByteBuffer.wrap(payload);
+    if (header.get() != FORMAT || header.getLong() <= clock.millis()) {
+      return null;
+    }
+    try {
+      return TacoOrderCodec.decode(payload, HEADER_LENGTH,
+          payload.length - HEADER_LENGTH);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private byte[] sign(byte[] payload) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Cookie cookie(String value, int maxAge) {
+    Cookie cookie = new Cookie(COOKIE_NAME, value);
+    cookie.setPath("/");
+    cookie.setHttpOnly(true);
+    cookie.setSecure(secure);
+    cookie.setAttribute("SameSite", sameSite);
+    cookie.setMaxAge(maxAge);
+    return cookie;
+  }
+
+}
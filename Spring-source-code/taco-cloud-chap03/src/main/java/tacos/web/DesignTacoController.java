@@ -1,8 +1,12 @@
 package tacos.web;
 
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,40 +17,39 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.SessionAttributes;
 
 import tacos.Ingredient;
 import tacos.Ingredient.Type;
 import tacos.TacoOrder;
 import tacos.Taco;
-import tacos.data.IngredientRepository;
+import tacos.data.IngredientCatalog;
 
 @Controller
 @RequestMapping("/design")
-@SessionAttributes("tacoOrder")
 public class DesignTacoController {
 
-  private final IngredientRepository ingredientRepo;
+  private final IngredientCatalog ingredientCatalog;
+
+  private final DraftOrderStore draftStore;
+
+  private volatile DesignIngredients designIngredients;
 
   @Autowired
   public DesignTacoController(
-        IngredientRepository ingredientRepo) {
-    this.ingredientRepo = ingredientRepo;
+        IngredientCatalog ingredientCatalog,
+        DraftOrderStore draftStore) {
+    this.ingredientCatalog = ingredientCatalog;
+    this.draftStore = draftStore;
   }
 
   @ModelAttribute
   public void addIngredientsToModel(Model model) {
-    Iterable<Ingredient> ingredients = ingredientRepo.findAll();
-    Type[] types = Ingredient.Type.values();
-    for (Type type : types) {
-      model.addAttribute(type.toString().toLowerCase(),
-          filterByType(ingredients, type));
-    }
+    model.addAllAttributes(designIngredients().byAttribute);
   }
 
   @ModelAttribute(name = "tacoOrder")
-  public TacoOrder order() {
-    return new TacoOrder();
+  public TacoOrder order(HttpServletRequest request) {
+    return draftStore.load(request);
   }
 
   @ModelAttribute(name = "taco")
@@ -62,22 +65,57 @@ public class DesignTacoController {
   @PostMapping
   public String processTaco(
       @Valid Taco taco, Errors errors,
-      @ModelAttribute TacoOrder tacoOrder) {
+      @ModelAttribute TacoOrder tacoOrder,
+      HttpServletRequest request, HttpServletResponse response) {
 
     if (errors.hasErrors()) {
       return "design";
     }
 
     tacoOrder.addTaco(taco);
+    try {
+      draftStore.save(tacoOrder, request, response);
+    } catch (DraftTooLargeException e) {
+      tacoOrder.getTacos().remove(tacoOrder.getTacos().size() - 1);
+      errors.reject("draftTooLarge",
+          "Your order can't hold any more tacos. Place it, then design "
+          + "your next one.");
+      return "design";
+    }
 
     return "redirect:/orders/current";
   }
 
-  private Iterable<Ingredient> filterByType(
-      Iterable<Ingredient> ingredients, Type type) {
-    return StreamSupport.stream(ingredients.spliterator(), false)
-              .filter(i -> i.getType().equals(type))
-              .collect(Collectors.toList());
+  // One catalog read per render: each snapshot hands out its own
+  // grouping instance, so the memo is rebuilt only when that changes.
+  private DesignIngredients designIngredients() {
+    Map<Type, List<Ingredient>> byType = ingredientCatalog.findAllByType();
+    DesignIngredients current = designIngredients;
+    if (current == null || current.byType != byType) {
+      current = new DesignIngredients(byType);
+      designIngredients = current;
+    }
+    return current;
+  }
+
+  /**
+   * The per-type ingredient lists keyed by their model attribute name,
+   * built once per catalog snapshot and shared by every request.
+   */
+  private static class DesignIngredients {
+
+    private final Map<Type, List<Ingredient>> byType;
+    private final Map<String, List<Ingredient>> byAttribute;
+
+    DesignIngredients(Map<Type, List<Ingredient>> byType) {
+      Map<String, List<Ingredient>> byAttribute = new LinkedHashMap<>();
+      for (Type type : Type.values()) {
+        byAttribute.put(type.toString().toLowerCase(), byType.get(type));
+      }
+      this.byType = byType;
+      this.byAttribute = Collections.unmodifiableMap(byAttribute);
+    }
+
   }
 
 }
@@ -0,0 +1,30 @@
+package tacos.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import tacos.TacoOrder;
+
+/**
+ * Holds the order a user is building between the design page and the
+ * order form. Which implementation is used is chosen with
+ * {@code taco.drafts.store}.
+ */
+public interface DraftOrderStore {
+
+  /**
+   * Returns the caller's draft order, or a new, empty one if there is
+   * none.
+   */
+  TacoOrder load(HttpServletRequest request);
+
+  /**
+   * @throws DraftTooLargeException if the store can't hold the order,
+   *         which is then left as it was
+   */
+  void save(TacoOrder order,
+      HttpServletRequest request, HttpServletResponse response);
+
+  void clear(HttpServletRequest request, HttpServletResponse response);
+
+}
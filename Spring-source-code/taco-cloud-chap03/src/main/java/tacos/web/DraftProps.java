@@ -0,0 +1,37 @@
+package tacos.web;
+import java.time.Duration;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.drafts")
+@Data
+@Validated
+public class DraftProps {
+
+  @Pattern(regexp="session|cookie", message="must be session or cookie")
+  private String store = "session";
+
+  // Key for signing draft cookies. Every node must share it.
+  private String secret;
+
+  @NotNull
+  private Duration ttl = Duration.ofHours(2);
+
+  // Whether draft cookies are only sent over HTTPS. Turn off only when
+  // the site is served over plain HTTP.
+  private boolean cookieSecure = true;
+
+  // The draft cookie's SameSite attribute. None also needs cookieSecure.
+  @Pattern(regexp="Strict|Lax|None", message="must be Strict, Lax or None")
+  private String cookieSameSite = "Lax";
+
+}
@@ -0,0 +1,14 @@
+package tacos.web;
+
+/**
+ * Thrown by a {@link DraftOrderStore} that can't hold a draft this big.
+ */
+public class DraftTooLargeException extends IllegalStateException {
+
+  private static final long serialVersionUID = 1L;
+
+  public DraftTooLargeException(String message) {
+    super(message);
+  }
+
+}
@@ -1,26 +1,37 @@
 package tacos.web;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.SessionAttributes;
-import org.springframework.web.bind.support.SessionStatus;
 
 import tacos.TacoOrder;
 import tacos.data.OrderRepository;
 
 @Controller
 @RequestMapping("/orders")
-@SessionAttributes("tacoOrder")
 public class OrderController {
 
   private OrderRepository orderRepo;
 
-  public OrderController(OrderRepository orderRepo) {
+  private DraftOrderStore draftStore;
+
+  public OrderController(OrderRepository orderRepo,
+          DraftOrderStore draftStore) {
     this.orderRepo = orderRepo;
+    this.draftStore = draftStore;
+  }
+
+  // Form fields bind onto the draft, so the tacos designed earlier
+  // come along with the delivery and payment details.
+  @ModelAttribute(name = "tacoOrder")
+  public TacoOrder order(HttpServletRequest request) {
+    return draftStore.load(request);
   }
 
   @GetMapping("/current")
@@ -29,13 +40,14 @@ public class OrderController {
   }
 
   @PostMapping
-  public String processOrder(@Valid TacoOrder order, Errors errors, SessionStatus sessionStatus) {
+  public String processOrder(@Valid TacoOrder order, Errors errors,
+      HttpServletRequest request, HttpServletResponse response) {
     if (errors.hasErrors()) {
       return "orderForm";
     }
 
     orderRepo.save(order);
-    sessionStatus.setComplete();
+    draftStore.clear(request, response);
 
     return "redirect:/";
   }
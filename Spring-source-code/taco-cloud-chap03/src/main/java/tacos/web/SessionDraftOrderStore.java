@@ -0,0 +1,44 @@
+package tacos.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import tacos.TacoOrder;
+
+/**
+ * Keeps the draft order in the HTTP session, as
+ * {@code @SessionAttributes} used to. This is the default.
+ */
+@Component
+@ConditionalOnProperty(prefix="taco.drafts", name="store",
+                       havingValue="session", matchIfMissing=true)
+public class SessionDraftOrderStore implements DraftOrderStore {
+
+  static final String ATTRIBUTE = "tacoOrder";
+
+  @Override
+  public TacoOrder load(HttpServletRequest request) {
+    HttpSession session = request.getSession(false);
+    Object draft = session == null ? null : session.getAttribute(ATTRIBUTE);
+    return draft instanceof TacoOrder ? (TacoOrder) draft : new TacoOrder();
+  }
+
+  @Override
+  public void save(TacoOrder order,
+      HttpServletRequest request, HttpServletResponse response) {
+    request.getSession().setAttribute(ATTRIBUTE, order);
+  }
+
+  @Override
+  public void clear(HttpServletRequest request, HttpServletResponse response) {
+    HttpSession session = request.getSession(false);
+    if (session != null) {
+      session.removeAttribute(ATTRIBUTE);
+    }
+  }
+
+}
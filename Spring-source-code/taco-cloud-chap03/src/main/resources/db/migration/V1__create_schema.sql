@@ -32,4 +32,4 @@ type varchar(10) not null
 alter table Taco
 add foreign key (taco_order) references Taco_Order(id);
 alter table Ingredient_Ref
-add foreign key (ingredient) references Ingredient(id);
\ No newline at end of file
+add foreign key (ingredient) references Ingredient(id);
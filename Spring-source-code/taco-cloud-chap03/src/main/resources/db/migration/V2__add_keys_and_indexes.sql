@@ -0,0 +1,10 @@
+alter table Ingredient
+add primary key (id);
+
+alter table Ingredient_Ref
+add primary key (taco, taco_key);
+alter table Ingredient_Ref
+add foreign key (taco) references Taco(id);
+
+create unique index Taco_Order_Key
+on Taco (taco_order, taco_order_key);
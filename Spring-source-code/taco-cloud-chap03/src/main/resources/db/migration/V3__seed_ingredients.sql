@@ -1,7 +1,3 @@
-delete from Ingredient_Ref;
-delete from Taco;
-delete from Taco_Order;
-delete from Ingredient;
 insert into Ingredient (id, name, type)
 values ('FLTO', 'Flour Tortilla', 'WRAP');
 insert into Ingredient (id, name, type)
@@ -21,4 +17,4 @@ values ('JACK', 'Monterrey Jack', 'CHEESE');
 insert into Ingredient (id, name, type)
 values ('SLSA', 'Salsa', 'SAUCE');
 insert into Ingredient (id, name, type)
-values ('SRCR', 'Sour Cream', 'SAUCE');
\ No newline at end of file
+values ('SRCR', 'Sour Cream', 'SAUCE');
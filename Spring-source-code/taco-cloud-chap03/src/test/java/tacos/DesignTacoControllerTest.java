@@ -1,4 +1,6 @@
 package tacos;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -17,17 +19,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import tacos.Ingredient.Type;
+import tacos.data.IngredientCatalog;
 import tacos.data.IngredientRepository;
 import tacos.data.OrderRepository;
 import tacos.web.DesignTacoController;
+import tacos.web.DraftTooLargeException;
+import tacos.web.SessionDraftOrderStore;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(DesignTacoController.class)
+@Import({IngredientCatalog.class, SessionDraftOrderStore.class})
 public class DesignTacoControllerTest {
 
   @Autowired
@@ -43,6 +51,9 @@ public class DesignTacoControllerTest {
   @MockBean
   private OrderRepository orderRepository;
 
+  @SpyBean
+  private SessionDraftOrderStore draftStore;
+
   @BeforeEach
   public void setup() {
     ingredients = Arrays.asList(
@@ -93,4 +104,17 @@ public class DesignTacoControllerTest {
         .andExpect(header().stringValues("Location", "/orders/current"));
   }
 
+  @Test
+  public void shouldRedisplayTheDesignWhenTheDraftIsFull() throws Exception {
+    doThrow(new DraftTooLargeException("Draft order is too large to store"))
+        .when(draftStore).save(any(), any(), any());
+
+    mockMvc.perform(post("/design")
+        .content("name=Test+Taco&ingredients=FLTO,GRBF,CHED")
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+        .andExpect(status().isOk())
+        .andExpect(view().name("design"))
+        .andExpect(model().attributeHasErrors("taco"));
+  }
+
 }
@@ -11,14 +11,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import tacos.data.IngredientCatalog;
 import tacos.data.IngredientRepository;
 import tacos.data.OrderRepository;
+import tacos.web.SessionDraftOrderStore;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest
+@Import({IngredientCatalog.class, SessionDraftOrderStore.class})
 public class HomeControllerTest {
 
   @Autowired
@@ -0,0 +1,119 @@
+package tacos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+public class TacoOrderCodecTest {
+
+  @Test
+  public void shouldRoundTripAFullOrder() {
+    TacoOrder order = order(3);
+    order.setId(1234L);
+    order.setPlacedAt(new Date(1_700_000_000_000L));
+
+    TacoOrder decoded = TacoOrderCodec.decode(TacoOrderCodec.encode(order));
+
+    assertThat(decoded).isEqualTo(order);
+  }
+
+  @Test
+  public void shouldKeepNulls() {
+    TacoOrder order = new TacoOrder();
+    Taco taco = new Taco();
+    taco.setCreatedAt(null);
+    order.addTaco(taco);
+
+    TacoOrder decoded = TacoOrderCodec.decode(TacoOrderCodec.encode(order));
+
+    assertThat(decoded).isEqualTo(order);
+    assertThat(decoded.getTacos().get(0).getCreatedAt()).isNull();
+  }
+
+  @Test
+  public void shouldFallBackToStringsForIdsThatDontPack() {
+    TacoOrder order = order(1);
+    Taco taco = order.getTacos().get(0);
+    taco.getIngredients().add(new IngredientRef("GUACAMOLE"));
+    taco.getIngredients().add(new IngredientRef("JALAPEÑO"));
+    taco.getIngredients().add(new IngredientRef(""));
+
+    TacoOrder decoded = TacoOrderCodec.decode(TacoOrderCodec.encode(order));
+
+    assertThat(decoded.getTacos().get(0).getIngredients())
+        .extracting(IngredientRef::getIngredient)
+        .containsExactly("FLTO", "GRBF", "CHED", "GUACAMOLE", "JALAPEÑO", "");
+  }
+
+  @Test
+  public void shouldRejectTruncatedOrCorruptBytes() {
+    byte[] bytes = TacoOrderCodec.encode(order(2));
+
+    assertThatIllegalArgumentException().isThrownBy(() ->
+        TacoOrderCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+    assertThatIllegalArgumentException().isThrownBy(() ->
+        TacoOrderCodec.decode(Arrays.copyOf(bytes, bytes.length + 1)));
+    bytes[0] = 99;
+    assertThatIllegalArgumentException().isThrownBy(() ->
+        TacoOrderCodec.decode(bytes));
+  }
+
+  @Test
+  public void shouldUseTheCompactFormForJavaSerialization() throws Exception {
+    TacoOrder order = order(3);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(order);
+    }
+    Object read;
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()))) {
+      read = in.readObject();
+    }
+
+    assertThat(read).isEqualTo(order);
+    assertThat(bytes.size())
+        .isLessThan(TacoOrderCodec.encode(order).length + 150);
+  }
+
+  @Test
+  public void shouldWriteEachIngredientInFourBytes() {
+    int oneTaco = TacoOrderCodec.encode(order(1)).length;
+    int twoTacos = TacoOrderCodec.encode(order(2)).length;
+
+    // flags, timestamp, name "Taco 1", count, three ingredient codes
+    assertThat(twoTacos - oneTaco).isEqualTo(1 + 8 + 7 + 1 + 3 * 4);
+  }
+
+  private static TacoOrder order(int tacos) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName("Craig Walls");
+    order.setDeliveryStreet("123 North Street");
+    order.setDeliveryCity("Cross Roads");
+    order.setDeliveryState("TX");
+    order.setDeliveryZip("76227");
+    order.setCcNumber("4111111111111111");
+    order.setCcExpiration("10/29");
+    order.setCcCVV("123");
+    for (int i = 0; i < tacos; i++) {
+      Taco taco = new Taco();
+      taco.setName("Taco " + i);
+      taco.setCreatedAt(new Date(1_700_000_000_000L + i));
+      taco.getIngredients().add(new IngredientRef("FLTO"));
+      taco.getIngredients().add(new IngredientRef("GRBF"));
+      taco.getIngredients().add(new IngredientRef("CHED"));
+      order.addTaco(taco);
+    }
+    return order;
+  }
+
+}
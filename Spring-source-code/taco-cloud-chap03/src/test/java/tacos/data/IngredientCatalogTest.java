@@ -0,0 +1,149 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+
+public class IngredientCatalogTest {
+
+  private IngredientRepository ingredientRepo;
+
+  private IngredientCatalog catalog;
+
+  @BeforeEach
+  public void setup() {
+    ingredientRepo = mock(IngredientRepository.class);
+    when(ingredientRepo.findAll()).thenReturn(Arrays.asList(
+        new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+        new Ingredient("GRBF", "Ground Beef", Type.PROTEIN),
+        new Ingredient("CARN", "Carnitas", Type.PROTEIN)));
+
+    catalog = new IngredientCatalog(ingredientRepo);
+  }
+
+  @Test
+  public void shouldLoadOnceAndServeFromMemory() {
+    for (int i = 0; i < 10; i++) {
+      assertThat(catalog.findByType(Type.PROTEIN))
+          .extracting(Ingredient::getId)
+          .containsExactly("GRBF", "CARN");
+    }
+    assertThat(catalog.findByType(Type.SAUCE)).isEmpty();
+
+    verify(ingredientRepo, times(1)).findAll();
+  }
+
+  @Test
+  public void shouldRefreshAfterSave() {
+    catalog.findAll();
+    Ingredient salsa = new Ingredient("SLSA", "Salsa", Type.SAUCE);
+    when(ingredientRepo.save(salsa)).thenReturn(salsa);
+    when(ingredientRepo.findAll()).thenReturn(Arrays.asList(salsa));
+
+    catalog.save(salsa);
+
+    assertThat(catalog.findByType(Type.SAUCE)).containsExactly(salsa);
+    assertThat(catalog.findByType(Type.PROTEIN)).isEmpty();
+    verify(ingredientRepo, times(2)).findAll();
+  }
+
+  @Test
+  public void shouldPartitionLargeCatalogByType() {
+    List<Ingredient> ingredients = new ArrayList<>();
+    Type[] types = Type.values();
+    for (int i = 0; i < 500; i++) {
+      ingredients.add(new Ingredient(
+          String.format("%04d", i), "Ingredient " + i, types[i % types.length]));
+    }
+    when(ingredientRepo.findAll()).thenReturn(ingredients);
+
+    Map<Type, List<Ingredient>> byType = catalog.findAllByType();
+
+    for (Type type : types) {
+      assertThat(byType.get(type))
+          .hasSize(100)
+          .allMatch(ingredient -> ingredient.getType() == type);
+    }
+    assertThat(catalog.findAllByType()).isSameAs(byType);
+    assertThat(catalog.getById("0499")).isEqualTo(ingredients.get(499));
+  }
+
+  @Test
+  public void shouldChangeVersionOnRefresh() {
+    long version = catalog.version();
+    assertThat(catalog.version()).isEqualTo(version);
+
+    catalog.refresh();
+
+    assertThat(catalog.version()).isNotEqualTo(version);
+  }
+
+  @Test
+  public void shouldPublishHitMissAndRefreshCounts() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    catalog.bindTo(registry);
+
+    catalog.findAll();
+    catalog.findAll();
+    catalog.findAll();
+
+    assertThat(registry.get("ingredient.catalog.requests")
+        .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("ingredient.catalog.requests")
+        .tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    assertThat(registry.get("ingredient.catalog.refreshes")
+        .functionCounter().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReloadOnceAfterARunOfWrites() {
+    catalog.findAll();
+    for (String id : Arrays.asList("SLSA", "SRCR", "CHED")) {
+      Ingredient ingredient = new Ingredient(id, "Ingredient " + id, Type.SAUCE);
+      when(ingredientRepo.save(ingredient)).thenReturn(ingredient);
+      catalog.save(ingredient);
+    }
+
+    catalog.findAll();
+    catalog.findAll();
+
+    verify(ingredientRepo, times(2)).findAll();
+  }
+
+  @Test
+  public void shouldCountOnlyReadsCallersMake() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    catalog.bindTo(registry);
+
+    catalog.version();
+    catalog.findAllByType();
+    catalog.getById("FLTO");
+    Ingredient salsa = new Ingredient("SLSA", "Salsa", Type.SAUCE);
+    when(ingredientRepo.save(salsa)).thenReturn(salsa);
+    catalog.save(salsa);
+    catalog.findAllByType();
+
+    assertThat(registry.get("ingredient.catalog.requests")
+        .tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    assertThat(registry.get("ingredient.catalog.requests")
+        .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("ingredient.catalog.refreshes")
+        .functionCounter().count()).isEqualTo(2);
+  }
+
+}
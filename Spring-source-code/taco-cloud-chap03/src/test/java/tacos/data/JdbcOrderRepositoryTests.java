@@ -0,0 +1,257 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tacos.IngredientRef;
+import tacos.Taco;
+import tacos.TacoOrder;
+
+@JdbcTest
+public class JdbcOrderRepositoryTests {
+
+  private static final String[] INGREDIENTS = {
+      "FLTO", "GRBF", "CHED", "TMTO", "SLSA", "SRCR" };
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  JdbcTemplate jdbcSpy;
+
+  JdbcOrderRepository orderRepo;
+
+  @BeforeEach
+  public void setup() {
+    jdbcSpy = spy(jdbcTemplate);
+    orderRepo = new JdbcOrderRepository(jdbcSpy);
+  }
+
+  @Test
+  public void saveOrderInThreeRoundTrips() {
+    TacoOrder order = testOrder(5);
+
+    orderRepo.save(order);
+
+    verify(jdbcSpy, times(1))
+        .update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    verify(jdbcSpy, times(1))
+        .execute(any(PreparedStatementCreator.class),
+            any(PreparedStatementCallback.class));
+    verify(jdbcSpy, times(1))
+        .batchUpdate(anyString(), anyList(), any(int[].class));
+
+    assertThat(order.getId()).isNotNull();
+    assertThat(order.getTacos())
+        .extracting(Taco::getId)
+        .doesNotContainNull()
+        .doesNotHaveDuplicates();
+    assertThat(jdbcTemplate.queryForObject(
+        "select count(*) from Taco where taco_order=?",
+        Integer.class, order.getId())).isEqualTo(5);
+    assertThat(jdbcTemplate.queryForObject(
+        "select count(*) from Ingredient_Ref r join Taco t on r.taco = t.id "
+        + "where t.taco_order=?",
+        Integer.class, order.getId())).isEqualTo(30);
+  }
+
+  @Test
+  public void saveAndFindOrderWithTwoTacos() {
+    TacoOrder order = testOrder(2);
+
+    TacoOrder saved = orderRepo.save(order);
+    TacoOrder fetched = orderRepo.findById(saved.getId()).get();
+
+    assertThat(fetched.getDeliveryName()).isEqualTo("Test McTest");
+    List<Taco> tacos = fetched.getTacos();
+    assertThat(tacos).extracting(Taco::getName)
+        .containsExactly("Taco 0", "Taco 1");
+    assertThat(tacos.get(1).getIngredients())
+        .extracting(IngredientRef::getIngredient)
+        .containsExactly(INGREDIENTS);
+  }
+
+  @Test
+  public void findByIdLoadsOrderGraphInOneQuery() {
+    TacoOrder saved = orderRepo.save(testOrder(3));
+
+    TacoOrder fetched = orderRepo.findById(saved.getId()).get();
+
+    verify(jdbcSpy, times(1)).query(anyString(),
+        any(ResultSetExtractor.class), (Object) any());
+    assertThat(fetched.getTacos()).hasSize(3);
+    assertThat(fetched.getTacos())
+        .allSatisfy(taco -> assertThat(taco.getIngredients()).hasSize(6));
+  }
+
+  @Test
+  public void findByIdReturnsEmptyWhenMissing() {
+    assertThat(orderRepo.findById(-1L)).isEmpty();
+  }
+
+  @Test
+  public void findAllByIdLoadsEveryRequestedOrder() {
+    TacoOrder noTacos = orderRepo.save(testOrder(0));
+    TacoOrder oneTaco = orderRepo.save(testOrder(1));
+    TacoOrder twoTacos = orderRepo.save(testOrder(2));
+
+    List<TacoOrder> orders = orderRepo.findAllById(Arrays.asList(
+        twoTacos.getId(), noTacos.getId(), oneTaco.getId(), -1L));
+
+    assertThat(orders).extracting(TacoOrder::getId)
+        .containsExactly(noTacos.getId(), oneTaco.getId(), twoTacos.getId());
+    assertThat(orders).extracting(order -> order.getTacos().size())
+        .containsExactly(0, 1, 2);
+  }
+
+  /**
+   * Times findById as the order table grows tenfold from 10k orders up
+   * to -Dtacos.bench.orders (e.g. 1000000), then again at the largest
+   * size without the keys and indexes added by V2. Every generated
+   * order has one taco of two ingredients, which keeps 1M orders within
+   * about 2 GB of heap (e.g. -DargLine=-Xmx3g). The indexed lookups
+   * should stay flat, while the V1 ones grow with the tables.
+   */
+  @Test
+  @DirtiesContext
+  // Commits as it goes, rather than holding millions of rows in one
+  // transaction; the database is thrown away with the context.
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  @EnabledIfSystemProperty(named = "tacos.bench.orders", matches = "\\d+")
+  public void findByIdStaysFlatAsOrdersGrow() {
+    int maxOrders = Integer.getInteger("tacos.bench.orders");
+    // The spy records every call, so the benchmark uses a plain template.
+    JdbcOrderRepository repo = new JdbcOrderRepository(jdbcTemplate);
+    long firstOrder = 0;
+    int orders = 0;
+
+    System.out.printf("%16s %12s   (us per findById)%n", "orders", "findById");
+    for (int size = 10_000; size <= maxOrders; size *= 10) {
+      long generated = generateOrders(orders + 1, size);
+      if (orders == 0) {
+        firstOrder = generated;
+      }
+      orders = size;
+      timeFindById(repo, Integer.toString(orders), firstOrder, orders, 200);
+    }
+
+    // Drop what V2 added for the order graph: the Taco key index and
+    // the Ingredient_Ref primary and foreign keys on taco.
+    jdbcTemplate.execute("drop index Taco_Order_Key");
+    for (String constraint : jdbcTemplate.queryForList(
+        "select constraint_name from information_schema.constraints "
+        + "where table_name = 'INGREDIENT_REF' and column_list like 'TACO%' "
+        + "order by constraint_type desc",
+        String.class)) {
+      jdbcTemplate.execute(
+          "alter table Ingredient_Ref drop constraint " + constraint);
+    }
+    // Each of these scans the tables, so fewer calls are timed.
+    timeFindById(repo, orders + " (V1)", firstOrder, orders, 10);
+  }
+
+  // Inserts orders numbered from..to with set-based inserts of up to
+  // 100k orders each, letting the identity columns assign ids, and
+  // returns the first new order id.
+  private long generateOrders(int from, int to) {
+    long firstOrder = jdbcTemplate.queryForObject(
+        "select coalesce(max(id), 0) from Taco_Order", Long.class) + 1;
+    for (int chunk = from; chunk <= to; chunk += 100_000) {
+      generateChunk(chunk, Math.min(chunk + 99_999, to));
+    }
+    return jdbcTemplate.queryForObject(
+        "select min(id) from Taco_Order where id >= ?", Long.class, firstOrder);
+  }
+
+  private void generateChunk(int from, int to) {
+    long lastOrder = jdbcTemplate.queryForObject(
+        "select coalesce(max(id), 0) from Taco_Order", Long.class);
+    long lastTaco = jdbcTemplate.queryForObject(
+        "select coalesce(max(id), 0) from Taco", Long.class);
+
+    jdbcTemplate.update(
+        "insert into Taco_Order (delivery_name, delivery_street, "
+        + "delivery_city, delivery_state, delivery_zip, cc_number, "
+        + "cc_expiration, cc_cvv, placed_at) "
+        + "select 'Bench ' || x, '1234 Bench Lane', 'Benchville', 'CO', "
+        + "'80123', '4111111111111111', '10/23', '123', current_timestamp "
+        + "from system_range(?, ?)",
+        from, to);
+    jdbcTemplate.update(
+        "insert into Taco (name, taco_order, taco_order_key, created_at) "
+        + "select 'Taco ' || o.id, o.id, 0, current_timestamp "
+        + "from Taco_Order o where o.id > ?",
+        lastOrder);
+    jdbcTemplate.update(
+        "insert into Ingredient_Ref (ingredient, taco, taco_key) "
+        + "select i.c2, t.id, i.c1 from Taco t cross join "
+        + "(values (0, 'FLTO'), (1, 'GRBF')) i "
+        + "where t.id > ?",
+        lastTaco);
+  }
+
+  private void timeFindById(JdbcOrderRepository repo, String label,
+      long firstOrder, int orders, int calls) {
+    // A different order every call: H2 hands back the previous result
+    // for a repeated query on an unchanged table.
+    Random random = new Random(42);
+    for (int pass = 0; pass < 3; pass++) {
+      // The first passes warm the JIT; only the last is printed.
+      int tacos = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < calls; i++) {
+        tacos += repo.findById(firstOrder + random.nextInt(orders))
+            .get().getTacos().size();
+      }
+      double micros = (System.nanoTime() - start) / 1e3 / calls;
+      assertThat(tacos).isEqualTo(calls);
+      if (pass == 2) {
+        System.out.printf("%16s %12.1f%n", label, micros);
+      }
+    }
+  }
+
+  private TacoOrder testOrder(int tacoCount) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName("Test McTest");
+    order.setDeliveryStreet("1234 Test Lane");
+    order.setDeliveryCity("Testville");
+    order.setDeliveryState("CO");
+    order.setDeliveryZip("80123");
+    order.setCcNumber("4111111111111111");
+    order.setCcExpiration("10/23");
+    order.setCcCVV("123");
+    for (int i = 0; i < tacoCount; i++) {
+      Taco taco = new Taco();
+      taco.setName("Taco " + i);
+      for (String ingredient : INGREDIENTS) {
+        taco.getIngredients().add(new IngredientRef(ingredient));
+      }
+      order.addTaco(taco);
+    }
+    return order;
+  }
+
+}
@@ -0,0 +1,63 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@JdbcTest
+public class SchemaMigrationTests {
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void migrationsAreAppliedInOrder() {
+    List<String> versions = jdbcTemplate.queryForList(
+        "select \"version\" from \"flyway_schema_history\" "
+        + "where \"version\" is not null and \"success\" = true "
+        + "order by \"installed_rank\"",
+        String.class);
+
+    assertThat(versions).containsExactly("1", "2", "3");
+  }
+
+  @Test
+  public void ingredientsAreSeeded() {
+    Integer count = jdbcTemplate.queryForObject(
+        "select count(*) from Ingredient", Integer.class);
+
+    assertThat(count).isEqualTo(10);
+  }
+
+  @Test
+  public void childTablesAreIndexedByParentAndKey() {
+    assertThat(indexColumns("TACO"))
+        .containsSubsequence("TACO_ORDER", "TACO_ORDER_KEY");
+    assertThat(indexColumns("INGREDIENT_REF"))
+        .containsSubsequence("TACO", "TACO_KEY");
+  }
+
+  @Test
+  public void ingredientIdIsPrimaryKey() {
+    List<String> columns = jdbcTemplate.queryForList(
+        "select column_name from information_schema.indexes "
+        + "where table_name = 'INGREDIENT' and primary_key = true",
+        String.class);
+
+    assertThat(columns).containsExactly("ID");
+  }
+
+  private List<String> indexColumns(String table) {
+    return jdbcTemplate.queryForList(
+        "select column_name from information_schema.indexes "
+        + "where table_name = ? and non_unique = false "
+        + "order by index_name, ordinal_position",
+        String.class, table);
+  }
+
+}
@@ -0,0 +1,157 @@
+package tacos.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import jakarta.servlet.http.Cookie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import tacos.IngredientRef;
+import tacos.Taco;
+import tacos.TacoOrder;
+
+public class CookieDraftOrderStoreTest {
+
+  private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+  private DraftProps props;
+
+  private CookieDraftOrderStore store;
+
+  @BeforeEach
+  public void setup() {
+    props = new DraftProps();
+    props.setStore("cookie");
+    props.setSecret("test-secret");
+    props.setTtl(Duration.ofHours(2));
+    store = new CookieDraftOrderStore(props, Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  public void shouldRoundTripTheDraftThroughACookie() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    store.save(order(2), new MockHttpServletRequest(), response);
+
+    Cookie cookie = response.getCookie(CookieDraftOrderStore.COOKIE_NAME);
+    assertThat(cookie.getMaxAge()).isEqualTo(7200);
+    assertThat(cookie.isHttpOnly()).isTrue();
+    assertThat(cookie.getSecure()).isTrue();
+    assertThat(cookie.getAttribute("SameSite")).isEqualTo("Lax");
+
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(cookie);
+    TacoOrder draft = store.load(request);
+
+    assertThat(draft.getTacos()).hasSize(2);
+    Taco taco = draft.getTacos().get(1);
+    assertThat(taco.getName()).isEqualTo("Taco 1");
+    assertThat(taco.getCreatedAt()).isEqualTo(Date.from(NOW));
+    assertThat(taco.getIngredients())
+        .extracting(IngredientRef::getIngredient)
+        .containsExactly("FLTO", "GRBF", "CHED");
+  }
+
+  @Test
+  public void shouldIgnoreATamperedCookie() {
+    String token = store.encode(order(1));
+    String payload = token.substring(0, token.indexOf('.'));
+    String forged = store.encode(order(3));
+    String forgedPayload = forged.substring(0, forged.indexOf('.'));
+
+    assertThat(store.decode(token)).isNotNull();
+    assertThat(store.decode(token.replace(payload, forgedPayload))).isNull();
+    assertThat(store.decode("not-a-token")).isNull();
+    assertThat(store.decode("%%%.%%%")).isNull();
+  }
+
+  @Test
+  public void shouldIgnoreACookieSignedWithAnotherSecret() {
+    String token = store.encode(order(1));
+    props.setSecret("another-secret");
+    CookieDraftOrderStore other = new CookieDraftOrderStore(
+        props, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    assertThat(other.decode(token)).isNull();
+  }
+
+  @Test
+  public void shouldIgnoreAnExpiredCookie() {
+    String token = store.encode(order(1));
+    CookieDraftOrderStore later = new CookieDraftOrderStore(props,
+        Clock.fixed(NOW.plus(Duration.ofHours(3)), ZoneOffset.UTC));
+
+    assertThat(later.decode(token)).isNull();
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(new Cookie(CookieDraftOrderStore.COOKIE_NAME, token));
+    assertThat(later.load(request).getTacos()).isEmpty();
+  }
+
+  @Test
+  public void shouldExpireTheCookieOnClear() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    store.clear(new MockHttpServletRequest(), response);
+
+    assertThat(response.getCookie(CookieDraftOrderStore.COOKIE_NAME)
+        .getMaxAge()).isZero();
+  }
+
+  @Test
+  public void shouldSetTheConfiguredCookieAttributes() {
+    props.setCookieSecure(false);
+    props.setCookieSameSite("Strict");
+    CookieDraftOrderStore plain = new CookieDraftOrderStore(
+        props, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    plain.save(order(1), new MockHttpServletRequest(), response);
+
+    Cookie cookie = response.getCookie(CookieDraftOrderStore.COOKIE_NAME);
+    assertThat(cookie.getSecure()).isFalse();
+    assertThat(cookie.getAttribute("SameSite")).isEqualTo("Strict");
+  }
+
+  @Test
+  public void shouldRefuseSameSiteNoneWithoutSecure() {
+    props.setCookieSecure(false);
+    props.setCookieSameSite("None");
+
+    assertThatIllegalArgumentException().isThrownBy(() ->
+        new CookieDraftOrderStore(props, Clock.fixed(NOW, ZoneOffset.UTC)));
+  }
+
+  @Test
+  public void shouldRefuseDraftsTooLargeForACookie() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertThatExceptionOfType(DraftTooLargeException.class).isThrownBy(() ->
+        store.save(order(200), new MockHttpServletRequest(), response));
+    assertThat(response.getCookie(CookieDraftOrderStore.COOKIE_NAME)).isNull();
+  }
+
+  private static TacoOrder order(int tacos) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName("Craig Walls");
+    for (int i = 0; i < tacos; i++) {
+      Taco taco = new Taco();
+      taco.setName("Taco " + i);
+      taco.setCreatedAt(Date.from(NOW));
+      taco.getIngredients().add(new IngredientRef("FLTO"));
+      taco.getIngredients().add(new IngredientRef("GRBF"));
+      taco.getIngredients().add(new IngredientRef("CHED"));
+      order.addTaco(taco);
+    }
+    return order;
+  }
+
+}
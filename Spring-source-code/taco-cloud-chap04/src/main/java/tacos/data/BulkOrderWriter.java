@@ -0,0 +1,275 @@
+package tacos.data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+
+import tacos.Taco;
+import tacos.TacoOrder;
+
+/**
+ * Groups orders that arrive close together into unordered bulk
+ * inserts, so that many submits share one round trip to MongoDB.
+ *
+ * The first order queued waits up to {@code taco.orders.ingest.window}
+ * for others to join it, and a batch is written as soon as it holds
+ * {@code max-batch-size} orders. Writes use their own write concern,
+ * {@code taco.orders.ingest.write-concern}, leaving the repositories'
+ * unchanged. With an unacknowledged write concern, failed inserts
+ * can't be reported and every order is completed as saved.
+ */
+@Component
+@ConditionalOnProperty(prefix="taco.orders.ingest",
+                       name="enabled", havingValue="true")
+public class BulkOrderWriter implements SmartLifecycle {
+
+  private final MongoOperations mongo;
+  private final OrderIngestProps props;
+
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final Semaphore capacity;
+
+  private ExecutorService flusher;
+  private volatile boolean running;
+
+  @Autowired
+  public BulkOrderWriter(MongoTemplate mongoTemplate, OrderIngestProps props) {
+    this((MongoOperations) ingestTemplate(mongoTemplate, props), props);
+  }
+
+  BulkOrderWriter(MongoOperations mongo, OrderIngestProps props) {
+    this.mongo = mongo;
+    this.props = props;
+    this.capacity = new Semaphore(props.getCapacity());
+  }
+
+  /**
+   * Queues a copy of the order for the next bulk insert, so that the
+   * caller may go on changing the order while it waits. An order
+   * without an id is given one first, which the copy shares: submitting
+   * the same order again can only fail as a duplicate, never insert it
+   * twice.
+   *
+   * @return a future that completes with the copy once it has been
+   *         written, or exceptionally if it couldn't be
+   * @throws RejectedExecutionException if the queue stays full for the
+   *         whole accept timeout, or the writer isn't running
+   */
+  public CompletableFuture<TacoOrder> submit(TacoOrder order) {
+    if (!running) {
+      throw new RejectedExecutionException("Order writer is not running");
+    }
+    try {
+      if (!capacity.tryAcquire(props.getAcceptTimeout().toNanos(),
+          TimeUnit.NANOSECONDS)) {
+        throw new RejectedExecutionException("Order queue is full");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException(e);
+    }
+    if (order.getId() == null) {
+      order.setId(new ObjectId().toHexString());
+    }
+    Pending pending = new Pending(copyOf(order));
+    queue.add(pending);
+    return pending.result;
+  }
+
+  /**
+   * Writes the orders now, in a single unordered bulk insert, giving
+   * each one without an id a new one first.
+   *
+   * @throws BulkOperationException if some of the orders weren't
+   *         inserted; the rest were
+   */
+  public void insertAll(List<TacoOrder> orders) {
+    // Bulk inserts don't copy generated ids back onto the orders.
+    for (TacoOrder order : orders) {
+      if (order.getId() == null) {
+        order.setId(new ObjectId().toHexString());
+      }
+    }
+    mongo.bulkOps(BulkMode.UNORDERED, TacoOrder.class)
+        .insert(orders)
+        .execute();
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    flusher = Executors.newSingleThreadExecutor(
+        new CustomizableThreadFactory("order-ingest-"));
+    flusher.execute(this::drain);
+  }
+
+  /**
+   * Stops taking orders and gives the flusher up to the shutdown
+   * timeout to write what's queued. Orders still queued after that
+   * fail with a {@link RejectedExecutionException}.
+   */
+  @Override
+  public void stop() {
+    running = false;
+    flusher.shutdown();
+    try {
+      if (!flusher.awaitTermination(
+          props.getShutdownTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+        flusher.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      flusher.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    Pending pending;
+    while ((pending = queue.poll()) != null) {
+      pending.result.completeExceptionally(
+          new RejectedExecutionException("Order writer stopped"));
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // Start before the web server takes requests and stop after it has
+  // stopped taking them. Boot 3.2 starts and stops the web server in
+  // phase DEFAULT_PHASE - 2048 (Boot 2.x in Integer.MAX_VALUE - 1), and
+  // beans that share a phase aren't ordered, so this stays well below.
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void drain() {
+    int maxBatchSize = props.getMaxBatchSize();
+    long windowNanos = props.getWindow().toNanos();
+    List<Pending> batch = new ArrayList<>(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+          queue.drainTo(batch, maxBatchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() == maxBatchSize || remaining <= 0) {
+            break;
+          }
+          Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        batch.forEach(pending -> queue.add(pending));
+        return;
+      }
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<Pending> batch) {
+    List<TacoOrder> orders = batch.stream()
+        .map(pending -> pending.order)
+        .collect(Collectors.toList());
+    try {
+      insertAll(orders);
+      batch.forEach(pending -> pending.result.complete(pending.order));
+    } catch (BulkOperationException e) {
+      Set<Integer> failed = new HashSet<>();
+      for (BulkWriteError error : e.getErrors()) {
+        failed.add(error.getIndex());
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        Pending pending = batch.get(i);
+        if (failed.contains(i)) {
+          pending.result.completeExceptionally(e);
+        } else {
+          pending.result.complete(pending.order);
+        }
+      }
+    } catch (RuntimeException e) {
+      batch.forEach(pending -> pending.result.completeExceptionally(e));
+    } finally {
+      capacity.release(batch.size());
+    }
+  }
+
+  private static TacoOrder copyOf(TacoOrder order) {
+    TacoOrder copy = new TacoOrder();
+    copy.setId(order.getId());
+    copy.setPlacedAt(order.getPlacedAt());
+    copy.setDeliveryName(order.getDeliveryName());
+    copy.setDeliveryStreet(order.getDeliveryStreet());
+    copy.setDeliveryCity(order.getDeliveryCity());
+    copy.setDeliveryState(order.getDeliveryState());
+    copy.setDeliveryZip(order.getDeliveryZip());
+    copy.setCcNumber(order.getCcNumber());
+    copy.setCcExpiration(order.getCcExpiration());
+    copy.setCcCVV(order.getCcCVV());
+    for (Taco taco : order.getTacos()) {
+      Taco tacoCopy = new Taco();
+      tacoCopy.setName(taco.getName());
+      tacoCopy.setCreatedAt(taco.getCreatedAt());
+      tacoCopy.setIngredients(new ArrayList<>(taco.getIngredients()));
+      copy.addTaco(tacoCopy);
+    }
+    return copy;
+  }
+
+  private static MongoTemplate ingestTemplate(
+      MongoTemplate mongoTemplate, OrderIngestProps props) {
+    WriteConcern writeConcern = WriteConcern.valueOf(props.getWriteConcern());
+    if (writeConcern == null) {
+      throw new IllegalArgumentException(
+          "Unknown write concern " + props.getWriteConcern());
+    }
+    MongoTemplate template = new MongoTemplate(
+        mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter());
+    template.setWriteConcern(writeConcern);
+    return template;
+  }
+
+  private static final class Pending {
+
+    final TacoOrder order;
+    final CompletableFuture<TacoOrder> result = new CompletableFuture<>();
+
+    Pending(TacoOrder order) {
+      this.order = order;
+    }
+
+  }
+
+}
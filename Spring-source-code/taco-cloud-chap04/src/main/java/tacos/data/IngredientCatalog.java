@@ -0,0 +1,87 @@
+package tacos.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import tacos.Ingredient;
+
+/**
+ * Keeps every ingredient in memory, by id, so that ingredient codes
+ * stored in orders can be resolved without going back to MongoDB.
+ *
+ * The catalog loads on first use. A code it doesn't know makes it
+ * reload once, so that ingredients added since are picked up; after
+ * that the code is remembered as unknown until the next reload.
+ * Saving or deleting an ingredient drops the loaded ingredients; see
+ * {@link IngredientCatalogInvalidator}.
+ */
+@Component
+public class IngredientCatalog {
+
+  private final ObjectProvider<IngredientRepository> ingredientRepo;
+
+  private volatile Snapshot snapshot;
+
+  // Taken lazily: the repository needs the Mongo converter, which
+  // needs this catalog.
+  public IngredientCatalog(ObjectProvider<IngredientRepository> ingredientRepo) {
+    this.ingredientRepo = ingredientRepo;
+  }
+
+  /**
+   * @return the ingredient, or {@code null} if there isn't one with
+   *         that id
+   */
+  public Ingredient byId(String id) {
+    Snapshot current = snapshot;
+    if (current != null) {
+      Ingredient ingredient = current.byId.get(id);
+      if (ingredient != null || current.unknown.contains(id)) {
+        return ingredient;
+      }
+    }
+    current = reload(current);
+    Ingredient ingredient = current.byId.get(id);
+    if (ingredient == null) {
+      current.unknown.add(id);
+    }
+    return ingredient;
+  }
+
+  /**
+   * Drops the loaded ingredients so that the next lookup reads them
+   * again.
+   */
+  public void invalidate() {
+    snapshot = null;
+  }
+
+  private synchronized Snapshot reload(Snapshot seen) {
+    // Another caller may have reloaded while this one waited.
+    if (snapshot != seen && snapshot != null) {
+      return snapshot;
+    }
+    Map<String, Ingredient> byId = new HashMap<>();
+    ingredientRepo.getObject().findAll()
+        .forEach(ingredient -> byId.put(ingredient.getId(), ingredient));
+    snapshot = new Snapshot(byId);
+    return snapshot;
+  }
+
+  private static class Snapshot {
+
+    final Map<String, Ingredient> byId;
+    final Set<String> unknown = ConcurrentHashMap.newKeySet();
+
+    Snapshot(Map<String, Ingredient> byId) {
+      this.byId = byId;
+    }
+
+  }
+
+}
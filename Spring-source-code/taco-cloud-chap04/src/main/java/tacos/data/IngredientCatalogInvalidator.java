@@ -0,0 +1,35 @@
+package tacos.data;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import tacos.Ingredient;
+
+/**
+ * Drops the {@link IngredientCatalog}'s loaded ingredients whenever one
+ * is saved or deleted through the repository or template, so that
+ * orders read afterwards pick up renamed and removed ingredients.
+ */
+@Component
+public class IngredientCatalogInvalidator
+    extends AbstractMongoEventListener<Ingredient> {
+
+  private final IngredientCatalog catalog;
+
+  public IngredientCatalogInvalidator(IngredientCatalog catalog) {
+    this.catalog = catalog;
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<Ingredient> event) {
+    catalog.invalidate();
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<Ingredient> event) {
+    catalog.invalidate();
+  }
+
+}
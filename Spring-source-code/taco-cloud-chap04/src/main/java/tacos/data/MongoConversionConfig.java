@@ -0,0 +1,72 @@
+package tacos.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import tacos.Ingredient;
+import tacos.data.OrderStorageProps.IngredientStorage;
+
+/**
+ * With {@code taco.orders.storage.ingredients=codes}, tacos store each
+ * ingredient as its id alone instead of an embedded copy of the whole
+ * ingredient, and the name and type come from the
+ * {@link IngredientCatalog} when the order is read.
+ *
+ * Codes are read back whichever mode is set, so orders written in
+ * either mode stay readable after switching.
+ */
+@Configuration
+public class MongoConversionConfig {
+
+  @Bean
+  public MongoCustomConversions mongoCustomConversions(
+      OrderStorageProps props, IngredientCatalog catalog) {
+    List<Converter<?, ?>> converters = new ArrayList<>();
+    converters.add(new CodeToIngredientConverter(catalog));
+    if (props.getIngredients() == IngredientStorage.CODES) {
+      converters.add(new IngredientToCodeConverter());
+    }
+    return new MongoCustomConversions(converters);
+  }
+
+  // Only used for ingredients nested in other documents; ingredients
+  // saved in their own collection are still written whole.
+  @WritingConverter
+  static class IngredientToCodeConverter
+      implements Converter<Ingredient, String> {
+
+    @Override
+    public String convert(Ingredient ingredient) {
+      return ingredient.getId();
+    }
+
+  }
+
+  @ReadingConverter
+  static class CodeToIngredientConverter
+      implements Converter<String, Ingredient> {
+
+    private final IngredientCatalog catalog;
+
+    CodeToIngredientConverter(IngredientCatalog catalog) {
+      this.catalog = catalog;
+    }
+
+    // An ingredient that's since been removed keeps its code, with no
+    // name or type.
+    @Override
+    public Ingredient convert(String code) {
+      Ingredient ingredient = catalog.byId(code);
+      return ingredient != null ? ingredient : new Ingredient(code, null, null);
+    }
+
+  }
+
+}
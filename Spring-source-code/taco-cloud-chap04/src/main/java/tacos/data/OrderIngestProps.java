@@ -0,0 +1,49 @@
+package tacos.data;
+import java.time.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.orders.ingest")
+@Data
+@Validated
+public class OrderIngestProps {
+
+  private boolean enabled = false;
+
+  @Min(value=1, message="must be at least 1")
+  private int maxBatchSize = 100;
+
+  // How long the first order of a batch waits for others to join it.
+  @NotNull
+  private Duration window = Duration.ofMillis(5);
+
+  // One of the com.mongodb.WriteConcern constant names, such as
+  // ACKNOWLEDGED, W1, MAJORITY, JOURNALED or UNACKNOWLEDGED.
+  @NotBlank
+  private String writeConcern = "ACKNOWLEDGED";
+
+  @Min(value=1, message="must be at least 1")
+  private int capacity = 10_000;
+
+  @NotNull
+  private Duration acceptTimeout = Duration.ofMillis(100);
+
+  // How long an order submit waits for its batch to be written before
+  // the order form reports that it couldn't be placed.
+  @NotNull
+  private Duration submitTimeout = Duration.ofSeconds(10);
+
+  @NotNull
+  private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+}
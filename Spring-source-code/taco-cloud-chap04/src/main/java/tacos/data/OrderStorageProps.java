@@ -0,0 +1,27 @@
+package tacos.data;
+
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.orders.storage")
+@Data
+@Validated
+public class OrderStorageProps {
+
+  // How tacos store their ingredients: as whole embedded documents,
+  // or as ingredient codes looked up in the IngredientCatalog on read.
+  @NotNull
+  private IngredientStorage ingredients = IngredientStorage.EMBEDDED;
+
+  public enum IngredientStorage {
+    EMBEDDED, CODES
+  }
+
+}
@@ -1,6 +1,12 @@
 package tacos.web;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import javax.validation.Valid;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
@@ -11,6 +17,8 @@ import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.bind.support.SessionStatus;
 
 import tacos.TacoOrder;
+import tacos.data.BulkOrderWriter;
+import tacos.data.OrderIngestProps;
 import tacos.data.OrderRepository;
 
 @Controller
@@ -19,9 +27,15 @@ import tacos.data.OrderRepository;
 public class OrderController {
 
   private OrderRepository orderRepo;
+  private BulkOrderWriter bulkWriter;
+  private OrderIngestProps ingestProps;
 
-  public OrderController(OrderRepository orderRepo) {
+  public OrderController(OrderRepository orderRepo,
+          ObjectProvider<BulkOrderWriter> bulkWriter,
+          OrderIngestProps ingestProps) {
     this.orderRepo = orderRepo;
+    this.bulkWriter = bulkWriter.getIfAvailable();
+    this.ingestProps = ingestProps;
   }
 
   @GetMapping("/current")
@@ -35,10 +49,52 @@ public class OrderController {
       return "orderForm";
     }
 
-    orderRepo.save(order);
+    // With bulk ingest on, the order shares an insert with others
+    // submitted around the same time; either way it's saved by the
+    // time the user is redirected.
+    if (bulkWriter != null) {
+      if (!submitToBulkWriter(order, errors)) {
+        return "orderForm";
+      }
+    } else {
+      orderRepo.save(order);
+    }
     sessionStatus.setComplete();
 
     return "redirect:/";
   }
 
+  // The writer gives the session's order its id on the first submit
+  // and queues a copy. A batch that takes longer than the submit
+  // timeout may still write that copy, so the user is told the order
+  // is pending rather than lost, and a resubmit that finds the id saved
+  // (or fails as its duplicate) counts the order as placed. A full
+  // queue or a failed write sends the user back to the form.
+  private boolean submitToBulkWriter(TacoOrder order, Errors errors) {
+    if (order.getId() != null && orderRepo.existsById(order.getId())) {
+      return true;
+    }
+    try {
+      bulkWriter.submit(order).get(
+          ingestProps.getSubmitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      errors.reject("orderPending",
+          "Your order is still being placed. Submit it again in a moment "
+          + "to check on it; it won't be placed twice.");
+      return false;
+    } catch (ExecutionException e) {
+      if (order.getId() != null && orderRepo.existsById(order.getId())) {
+        return true;
+      }
+    } catch (RejectedExecutionException e) {
+      // Not queued; the form says so below.
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    errors.reject("orderNotPlaced",
+        "We couldn't place your order just now. Please try again.");
+    return false;
+  }
+
 }
@@ -15,6 +15,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import tacos.data.IngredientRepository;
+import tacos.data.OrderIngestProps;
 import tacos.data.OrderRepository;
 
 @ExtendWith(SpringExtension.class)
@@ -30,6 +31,9 @@ public class HomeControllerTest {
   @MockBean
   private OrderRepository orderRepository;
 
+  @MockBean
+  private OrderIngestProps orderIngestProps;
+
   @Test
   public void testHomePage() throws Exception {
     mockMvc.perform(get("/"))
@@ -0,0 +1,161 @@
+package tacos;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Errors;
+
+import tacos.data.BulkOrderWriter;
+import tacos.data.IngredientRepository;
+import tacos.data.OrderIngestProps;
+import tacos.data.OrderRepository;
+import tacos.web.OrderController;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(OrderController.class)
+public class OrderControllerTest {
+
+  private static final String ORDER_FORM =
+      "deliveryName=Craig+Walls&deliveryStreet=123+North+Street"
+      + "&deliveryCity=Cross+Roads&deliveryState=TX&deliveryZip=76227"
+      + "&ccNumber=4111111111111111&ccExpiration=10%2F29&ccCVV=123";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private IngredientRepository ingredientRepository;
+
+  @MockBean
+  private OrderRepository orderRepository;
+
+  @MockBean
+  private BulkOrderWriter bulkWriter;
+
+  @MockBean
+  private OrderIngestProps ingestProps;
+
+  @BeforeEach
+  public void setup() {
+    when(ingestProps.getSubmitTimeout()).thenReturn(Duration.ofMillis(200));
+  }
+
+  @Test
+  public void shouldRedirectOnceTheBulkWriteCompletes() throws Exception {
+    when(bulkWriter.submit(any(TacoOrder.class)))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(
+            invocation.getArgument(0)));
+
+    submitOrder()
+        .andExpect(status().is3xxRedirection())
+        .andExpect(header().stringValues("Location", "/"));
+  }
+
+  @Test
+  public void shouldRedisplayTheFormWhenTheQueueIsFull() throws Exception {
+    when(bulkWriter.submit(any(TacoOrder.class)))
+        .thenThrow(new RejectedExecutionException("Order queue is full"));
+
+    expectOrderNotPlaced();
+  }
+
+  @Test
+  public void shouldRedisplayTheFormWhenTheBulkWriteFails() throws Exception {
+    CompletableFuture<TacoOrder> failed = new CompletableFuture<>();
+    failed.completeExceptionally(
+        new DataAccessResourceFailureException("insert failed"));
+    when(bulkWriter.submit(any(TacoOrder.class))).thenReturn(failed);
+
+    expectOrderNotPlaced();
+  }
+
+  @Test
+  public void shouldReportAnOrderStillBeingWrittenAsPending()
+      throws Exception {
+    when(bulkWriter.submit(any(TacoOrder.class)))
+        .thenReturn(new CompletableFuture<>());
+
+    expectGlobalError(submitOrder(), "orderPending");
+  }
+
+  @Test
+  public void shouldNotResubmitAnOrderThatWasSavedMeanwhile()
+      throws Exception {
+    TacoOrder pending = new TacoOrder();
+    pending.setId("abc123");
+    when(orderRepository.existsById("abc123")).thenReturn(true);
+
+    submitOrder(pending)
+        .andExpect(status().is3xxRedirection())
+        .andExpect(header().stringValues("Location", "/"));
+    verify(bulkWriter, never()).submit(any(TacoOrder.class));
+  }
+
+  @Test
+  public void shouldTreatAFailedDuplicateOfASavedOrderAsPlaced()
+      throws Exception {
+    TacoOrder pending = new TacoOrder();
+    pending.setId("abc123");
+    // Saved by the earlier submit only after this one was queued.
+    when(orderRepository.existsById("abc123")).thenReturn(false, true);
+    CompletableFuture<TacoOrder> duplicate = new CompletableFuture<>();
+    duplicate.completeExceptionally(
+        new DuplicateKeyException("abc123 already exists"));
+    when(bulkWriter.submit(any(TacoOrder.class))).thenReturn(duplicate);
+
+    submitOrder(pending)
+        .andExpect(status().is3xxRedirection())
+        .andExpect(header().stringValues("Location", "/"));
+  }
+
+  private void expectOrderNotPlaced() throws Exception {
+    expectGlobalError(submitOrder(), "orderNotPlaced");
+  }
+
+  private void expectGlobalError(ResultActions result, String code)
+      throws Exception {
+    result
+        .andExpect(status().isOk())
+        .andExpect(view().name("orderForm"))
+        .andExpect(model().attributeHasErrors("tacoOrder"))
+        .andExpect(mvcResult -> assertThat(((Errors) mvcResult.getModelAndView()
+            .getModel().get(BindingResult.MODEL_KEY_PREFIX + "tacoOrder"))
+            .getGlobalError().getCode()).isEqualTo(code));
+  }
+
+  private ResultActions submitOrder() throws Exception {
+    return submitOrder(new TacoOrder());
+  }
+
+  private ResultActions submitOrder(TacoOrder sessionOrder) throws Exception {
+    return mockMvc.perform(post("/orders")
+        .sessionAttr("tacoOrder", sessionOrder)
+        .content(ORDER_FORM)
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED));
+  }
+
+}
@@ -0,0 +1,210 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Taco;
+import tacos.TacoOrder;
+
+@DataMongoTest
+public class BulkOrderWriterTests {
+
+  @Autowired
+  MongoTemplate mongoTemplate;
+
+  @Autowired
+  OrderRepository orderRepo;
+
+  private MongoOperations ingestTemplate;
+
+  private BulkOrderWriter writer;
+
+  @BeforeEach
+  public void setup() {
+    mongoTemplate.remove(new Query(), TacoOrder.class);
+    ingestTemplate = spy(new MongoTemplate(
+        mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter()));
+  }
+
+  @AfterEach
+  public void shutdown() {
+    if (writer != null && writer.isRunning()) {
+      writer.stop();
+    }
+  }
+
+  @Test
+  public void shouldInsertOrdersInOneBulkWrite() {
+    writer = new BulkOrderWriter(ingestTemplate, props(100, Duration.ZERO));
+    List<TacoOrder> orders = List.of(order(1), order(2), order(3));
+
+    writer.insertAll(orders);
+
+    verify(ingestTemplate, times(1))
+        .bulkOps(eq(BulkMode.UNORDERED), eq(TacoOrder.class));
+    for (TacoOrder order : orders) {
+      assertThat(order.getId()).isNotNull();
+      assertThat(orderRepo.findById(order.getId()).get().getDeliveryName())
+          .isEqualTo(order.getDeliveryName());
+    }
+  }
+
+  @Test
+  public void shouldGroupSubmitsArrivingWithinTheWindow() {
+    writer = new BulkOrderWriter(ingestTemplate,
+        props(10, Duration.ofMillis(500)));
+    writer.start();
+
+    List<CompletableFuture<TacoOrder>> results = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      results.add(writer.submit(order(i)));
+    }
+    results.forEach(CompletableFuture::join);
+
+    verify(ingestTemplate, times(3))
+        .bulkOps(eq(BulkMode.UNORDERED), any(Class.class));
+    assertThat(orderRepo.count()).isEqualTo(25);
+  }
+
+  @Test
+  public void shouldFailOnlyTheOrdersThatWerentInserted() {
+    TacoOrder existing = orderRepo.save(order(0));
+    writer = new BulkOrderWriter(ingestTemplate,
+        props(10, Duration.ofMillis(200)));
+    writer.start();
+
+    TacoOrder duplicate = order(1);
+    duplicate.setId(existing.getId());
+    CompletableFuture<TacoOrder> before = writer.submit(order(2));
+    CompletableFuture<TacoOrder> failed = writer.submit(duplicate);
+    CompletableFuture<TacoOrder> after = writer.submit(order(3));
+
+    assertThat(before.join().getId()).isNotNull();
+    assertThat(after.join().getId()).isNotNull();
+    assertThat(failed).isCompletedExceptionally();
+    assertThat(orderRepo.count()).isEqualTo(3);
+    assertThat(orderRepo.findById(existing.getId()).get().getDeliveryName())
+        .isEqualTo("Customer 0");
+  }
+
+  @Test
+  public void shouldWriteACopyTakenAtSubmit() {
+    writer = new BulkOrderWriter(ingestTemplate,
+        props(10, Duration.ofMillis(200)));
+    writer.start();
+
+    TacoOrder order = order(1);
+    CompletableFuture<TacoOrder> result = writer.submit(order);
+    order.setDeliveryName("Changed After Submit");
+    order.getTacos().clear();
+
+    TacoOrder written = result.join();
+    assertThat(written).isNotSameAs(order);
+    assertThat(written.getId()).isEqualTo(order.getId());
+    TacoOrder saved = orderRepo.findById(order.getId()).get();
+    assertThat(saved.getDeliveryName()).isEqualTo("Customer 1");
+    assertThat(saved.getTacos()).hasSize(1);
+  }
+
+  @Test
+  public void shouldNotInsertAResubmittedOrderTwice() {
+    writer = new BulkOrderWriter(ingestTemplate,
+        props(10, Duration.ofMillis(200)));
+    writer.start();
+
+    TacoOrder order = order(1);
+    CompletableFuture<TacoOrder> first = writer.submit(order);
+    CompletableFuture<TacoOrder> second = writer.submit(order);
+
+    assertThat(first.join().getId()).isEqualTo(order.getId());
+    assertThatThrownBy(second::join)
+        .hasCauseInstanceOf(BulkOperationException.class);
+    assertThat(orderRepo.count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRejectAnUnknownWriteConcern() {
+    OrderIngestProps props = props(10, Duration.ZERO);
+    props.setWriteConcern("SOMETIMES");
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> new BulkOrderWriter(mongoTemplate, props));
+  }
+
+  // Reports inserts per second for each batch size; run with
+  // -Dtacos.ingest.benchmark=true against a local MongoDB.
+  @Test
+  @EnabledIfSystemProperty(named="tacos.ingest.benchmark", matches="true")
+  public void reportInsertRateByBatchSize() {
+    writer = new BulkOrderWriter(mongoTemplate, props(1000, Duration.ZERO));
+    int total = 20_000;
+    for (int batchSize : new int[] {1, 10, 100, 1000}) {
+      mongoTemplate.remove(new Query(), TacoOrder.class);
+      long start = System.nanoTime();
+      for (int i = 0; i < total; i += batchSize) {
+        List<TacoOrder> batch = new ArrayList<>(batchSize);
+        for (int j = 0; j < batchSize; j++) {
+          batch.add(order(i + j));
+        }
+        writer.insertAll(batch);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("batch size %4d: %,10.0f inserts/s%n",
+          batchSize, total / seconds);
+      assertThat(orderRepo.count()).isEqualTo(total);
+    }
+  }
+
+  private static OrderIngestProps props(int maxBatchSize, Duration window) {
+    OrderIngestProps props = new OrderIngestProps();
+    props.setEnabled(true);
+    props.setMaxBatchSize(maxBatchSize);
+    props.setWindow(window);
+    return props;
+  }
+
+  private static TacoOrder order(int n) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName("Customer " + n);
+    order.setDeliveryStreet("1234 Test Lane");
+    order.setDeliveryCity("Testville");
+    order.setDeliveryState("CO");
+    order.setDeliveryZip("80123");
+    order.setCcNumber("4111111111111111");
+    order.setCcExpiration("10/23");
+    order.setCcCVV("123");
+    Taco taco = new Taco();
+    taco.setName("Taco " + n);
+    taco.addIngredient(new Ingredient("FLTO", "Flour Tortilla", Type.WRAP));
+    taco.addIngredient(new Ingredient("GRBF", "Ground Beef", Type.PROTEIN));
+    taco.addIngredient(new Ingredient("CHED", "Shredded Cheddar", Type.CHEESE));
+    order.addTaco(taco);
+    return order;
+  }
+
+}
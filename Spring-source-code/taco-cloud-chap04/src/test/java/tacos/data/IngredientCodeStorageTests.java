@@ -0,0 +1,261 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mongodb.MongoClientSettings;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Taco;
+import tacos.TacoOrder;
+
+@DataMongoTest
+@Import({MongoConversionConfig.class, IngredientCatalog.class,
+         IngredientCatalogInvalidator.class, OrderStorageProps.class})
+@TestPropertySource(properties="taco.orders.storage.ingredients=codes")
+public class IngredientCodeStorageTests {
+
+  private static final List<Ingredient> INGREDIENTS = List.of(
+      new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+      new Ingredient("COTO", "Corn Tortilla", Type.WRAP),
+      new Ingredient("GRBF", "Ground Beef", Type.PROTEIN),
+      new Ingredient("CARN", "Carnitas", Type.PROTEIN),
+      new Ingredient("TMTO", "Diced Tomatoes", Type.VEGGIES),
+      new Ingredient("LETC", "Lettuce", Type.VEGGIES),
+      new Ingredient("CHED", "Cheddar", Type.CHEESE),
+      new Ingredient("JACK", "Monterrey Jack", Type.CHEESE),
+      new Ingredient("SLSA", "Salsa", Type.SAUCE),
+      new Ingredient("SRCR", "Sour Cream", Type.SAUCE));
+
+  private static final Codec<Document> DOCUMENT_CODEC =
+      MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+  @Autowired
+  MongoTemplate mongoTemplate;
+
+  @Autowired
+  OrderRepository orderRepo;
+
+  @Autowired
+  IngredientRepository ingredientRepo;
+
+  @Autowired
+  IngredientCatalog catalog;
+
+  @BeforeEach
+  public void setup() {
+    mongoTemplate.remove(new Query(), TacoOrder.class);
+    ingredientRepo.saveAll(INGREDIENTS);
+  }
+
+  @Test
+  public void shouldStoreOnlyIngredientCodes() {
+    TacoOrder saved = orderRepo.save(order(new Random(1)));
+
+    Document stored = mongoTemplate.getCollection("tacoOrder")
+        .find().first();
+    List<?> tacos = stored.getList("tacos", Document.class);
+    assertThat(((Document) tacos.get(0)).getList("ingredients", Object.class))
+        .containsExactlyElementsOf(ids(saved.getTacos().get(0)));
+    assertThat(mongoTemplate.findById("FLTO", Document.class, "ingredient"))
+        .containsEntry("name", "Flour Tortilla");
+  }
+
+  @Test
+  public void shouldResolveIngredientsFromTheCatalog() {
+    TacoOrder saved = orderRepo.save(order(new Random(2)));
+
+    TacoOrder fetched = orderRepo.findById(saved.getId()).get();
+
+    assertThat(fetched.getTacos()).isEqualTo(saved.getTacos());
+  }
+
+  @Test
+  public void shouldStillReadEmbeddedIngredients() {
+    Document ingredient = new Document("_id", "CARN")
+        .append("name", "Carnitas").append("type", "PROTEIN");
+    Document taco = new Document("name", "Old Taco")
+        .append("createdAt", new Date())
+        .append("ingredients", List.of(ingredient, "CHED"));
+    mongoTemplate.getCollection("tacoOrder").insertOne(
+        new Document("deliveryName", "Old Order")
+            .append("tacos", List.of(taco)));
+
+    TacoOrder fetched = mongoTemplate.findOne(new Query(), TacoOrder.class);
+
+    assertThat(fetched.getTacos().get(0).getIngredients()).containsExactly(
+        new Ingredient("CARN", "Carnitas", Type.PROTEIN),
+        new Ingredient("CHED", "Cheddar", Type.CHEESE));
+  }
+
+  @Test
+  public void shouldKeepTheCodeOfAnUnknownIngredient() {
+    Taco taco = new Taco();
+    taco.setName("Mystery Taco");
+    taco.addIngredient(new Ingredient("XXXX", "Gone", Type.SAUCE));
+    TacoOrder order = new TacoOrder();
+    order.addTaco(taco);
+    TacoOrder saved = orderRepo.save(order);
+
+    TacoOrder fetched = orderRepo.findById(saved.getId()).get();
+
+    assertThat(fetched.getTacos().get(0).getIngredients())
+        .containsExactly(new Ingredient("XXXX", null, null));
+  }
+
+  @Test
+  public void shouldPickUpRenamedIngredients() {
+    TacoOrder saved = orderRepo.save(onlyTaco("CHED"));
+    orderRepo.findById(saved.getId()).get();
+
+    ingredientRepo.save(new Ingredient("CHED", "Aged Cheddar", Type.CHEESE));
+
+    assertThat(orderRepo.findById(saved.getId()).get()
+        .getTacos().get(0).getIngredients())
+        .containsExactly(new Ingredient("CHED", "Aged Cheddar", Type.CHEESE));
+  }
+
+  @Test
+  public void shouldForgetDeletedIngredients() {
+    TacoOrder saved = orderRepo.save(onlyTaco("SRCR"));
+    orderRepo.findById(saved.getId()).get();
+
+    ingredientRepo.deleteById("SRCR");
+
+    assertThat(orderRepo.findById(saved.getId()).get()
+        .getTacos().get(0).getIngredients())
+        .containsExactly(new Ingredient("SRCR", null, null));
+  }
+
+  @Test
+  public void shouldWriteSmallerDocuments() {
+    TacoOrder order = order(new Random(3));
+
+    assertThat(bsonSize(mongoTemplate.getConverter(), order))
+        .isLessThan(bsonSize(embeddedConverter(), order));
+  }
+
+  // Reports document size and read cost in both modes; run with
+  // -Dtacos.storage.orders=1000000 for the full dataset.
+  @Test
+  @EnabledIfSystemProperty(named="tacos.storage.orders", matches="\\d+")
+  public void reportStorageByMode() {
+    int count = Integer.getInteger("tacos.storage.orders");
+    MongoConverter codes = mongoTemplate.getConverter();
+    MongoConverter embedded = embeddedConverter();
+
+    long[] codesTotals = new long[2];
+    long[] embeddedTotals = new long[2];
+    Random random = new Random(42);
+    for (int i = 0; i < count; i++) {
+      TacoOrder order = order(random);
+      measure(codes, order, codesTotals);
+      measure(embedded, order, embeddedTotals);
+    }
+    System.out.printf("%,d orders%n", count);
+    report("embedded", count, embeddedTotals);
+    report("codes", count, codesTotals);
+    System.out.printf("size reduction: %.1f%%%n",
+        100.0 * (embeddedTotals[0] - codesTotals[0]) / embeddedTotals[0]);
+  }
+
+  private static void measure(MongoConverter converter, TacoOrder order,
+      long[] totals) {
+    Document document = new Document();
+    converter.write(order, document);
+    RawBsonDocument raw = new RawBsonDocument(document, DOCUMENT_CODEC);
+    totals[0] += raw.getByteBuffer().remaining();
+    long start = System.nanoTime();
+    converter.read(TacoOrder.class, raw.decode(DOCUMENT_CODEC));
+    totals[1] += System.nanoTime() - start;
+  }
+
+  private static void report(String mode, int count, long[] totals) {
+    System.out.printf("%-8s avg %5.0f B/order, total %,6.1f MB,"
+        + " decode %5.2f us/order%n", mode, (double) totals[0] / count,
+        totals[0] / 1e6, totals[1] / 1e3 / count);
+  }
+
+  private MongoConverter embeddedConverter() {
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.afterPropertiesSet();
+    MappingMongoConverter converter = new MappingMongoConverter(
+        NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(
+        new MongoCustomConversions(Collections.emptyList()));
+    converter.afterPropertiesSet();
+    return converter;
+  }
+
+  private static int bsonSize(MongoConverter converter, TacoOrder order) {
+    Document document = new Document();
+    converter.write(order, document);
+    return new RawBsonDocument(document, DOCUMENT_CODEC)
+        .getByteBuffer().remaining();
+  }
+
+  private static List<String> ids(Taco taco) {
+    List<String> ids = new ArrayList<>();
+    taco.getIngredients().forEach(ingredient -> ids.add(ingredient.getId()));
+    return ids;
+  }
+
+  private static TacoOrder onlyTaco(String ingredientId) {
+    Taco taco = new Taco();
+    taco.setName("Single Taco");
+    INGREDIENTS.stream()
+        .filter(ingredient -> ingredient.getId().equals(ingredientId))
+        .forEach(taco::addIngredient);
+    TacoOrder order = new TacoOrder();
+    order.addTaco(taco);
+    return order;
+  }
+
+  // One to four tacos of three to six ingredients each.
+  private static TacoOrder order(Random random) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName("Test McTest");
+    order.setDeliveryStreet("1234 Test Lane");
+    order.setDeliveryCity("Testville");
+    order.setDeliveryState("CO");
+    order.setDeliveryZip("80123");
+    order.setCcNumber("4111111111111111");
+    order.setCcExpiration("10/23");
+    order.setCcCVV("123");
+    int tacos = 1 + random.nextInt(4);
+    for (int i = 0; i < tacos; i++) {
+      Taco taco = new Taco();
+      taco.setName("Taco Number " + i);
+      List<Ingredient> shuffled = new ArrayList<>(INGREDIENTS);
+      Collections.shuffle(shuffled, random);
+      shuffled.subList(0, 3 + random.nextInt(4)).forEach(taco::addIngredient);
+      order.addTaco(taco);
+    }
+    return order;
+  }
+
+}
@@ -1,5 +1,7 @@
 package tacos;
 
+import java.util.Arrays;
+
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,7 +9,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import tacos.Ingredient.Type;
-import tacos.data.IngredientRepository;
+import tacos.data.IngredientCatalog;
 import tacos.data.UserRepository;
 
 @Profile("!prod")
@@ -15,24 +17,25 @@ import tacos.data.UserRepository;
 public class DevelopmentConfig {
 
   @Bean
-  public CommandLineRunner dataLoader(IngredientRepository repo,
+  public CommandLineRunner dataLoader(IngredientCatalog catalog,
         UserRepository userRepo, PasswordEncoder encoder) { // user repo for ease of testing with a built-in user
     return new CommandLineRunner() {
       @Override
       public void run(String... args) throws Exception {
-    	repo.deleteAll();
+    	catalog.deleteAll();
         userRepo.deleteAll();
 
-        repo.save(new Ingredient("FLTO", "Flour Tortilla", Type.WRAP));
-        repo.save(new Ingredient("COTO", "Corn Tortilla", Type.WRAP));
-        repo.save(new Ingredient("GRBF", "Ground Beef", Type.PROTEIN));
-        repo.save(new Ingredient("CARN", "Carnitas", Type.PROTEIN));
-        repo.save(new Ingredient("TMTO", "Diced Tomatoes", Type.VEGGIES));
-        repo.save(new Ingredient("LETC", "Lettuce", Type.VEGGIES));
-        repo.save(new Ingredient("CHED", "Cheddar", Type.CHEESE));
-        repo.save(new Ingredient("JACK", "Monterrey Jack", Type.CHEESE));
-        repo.save(new Ingredient("SLSA", "Salsa", Type.SAUCE));
-        repo.save(new Ingredient("SRCR", "Sour Cream", Type.SAUCE));
+        catalog.saveAll(Arrays.asList(
+            new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+            new Ingredient("COTO", "Corn Tortilla", Type.WRAP),
+            new Ingredient("GRBF", "Ground Beef", Type.PROTEIN),
+            new Ingredient("CARN", "Carnitas", Type.PROTEIN),
+            new Ingredient("TMTO", "Diced Tomatoes", Type.VEGGIES),
+            new Ingredient("LETC", "Lettuce", Type.VEGGIES),
+            new Ingredient("CHED", "Cheddar", Type.CHEESE),
+            new Ingredient("JACK", "Monterrey Jack", Type.CHEESE),
+            new Ingredient("SLSA", "Salsa", Type.SAUCE),
+            new Ingredient("SRCR", "Sour Cream", Type.SAUCE)));
                 
         userRepo.save(new User("habuma", encoder.encode("password"), 
             "Craig Walls", "123 North Street", "Cross Roads", "TX", 
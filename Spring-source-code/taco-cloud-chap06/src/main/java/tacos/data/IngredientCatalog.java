@@ -0,0 +1,255 @@
+package tacos.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+
+/**
+ * Read-through, in-memory view of the ingredient table.
+ *
+ * The catalog is loaded on first use and kept as an immutable
+ * {@link Snapshot}, pre-grouped by {@link Type}, so reads never touch
+ * the database. Writes made through {@link #save(Ingredient)},
+ * {@link #saveAll(Iterable)} and {@link #deleteAll()} go to the
+ * repository and then drop the snapshot, and the next read loads a
+ * fresh one.
+ */
+@Component
+public class IngredientCatalog {
+
+  private final IngredientRepository ingredientRepo;
+
+  private volatile Snapshot snapshot;
+
+  private long lastVersion;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong refreshes = new AtomicLong();
+
+  public IngredientCatalog(IngredientRepository ingredientRepo) {
+    this.ingredientRepo = ingredientRepo;
+  }
+
+  // The registry is looked up rather than having the catalog act as a
+  // MeterBinder bean: binders are collected while the registry is being
+  // built, and the repository behind the catalog needs that registry
+  // for its own metrics.
+  @Autowired
+  public IngredientCatalog(IngredientRepository ingredientRepo,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this(ingredientRepo);
+    meterRegistry.ifAvailable(this::bindTo);
+  }
+
+  public List<Ingredient> findAll() {
+    return read().all;
+  }
+
+  public List<Ingredient> findByType(Type type) {
+    return read().byType.get(type);
+  }
+
+  /**
+   * Returns every ingredient grouped by type. The map and its lists are
+   * immutable and shared by all callers until the next refresh.
+   */
+  public Map<Type, List<Ingredient>> findAllByType() {
+    return read().byType;
+  }
+
+  /**
+   * Identifies the current snapshot. The version changes on every
+   * refresh, so callers can memoise anything they derive from the
+   * catalog and rebuild it only when the version moves on. Asking for
+   * the version isn't counted as a catalog read.
+   */
+  public long version() {
+    return snapshot().version;
+  }
+
+  /**
+   * Looks up an ingredient by id without querying the database or
+   * allocating, which makes it cheap enough for form binding.
+   *
+   * @return the ingredient, or {@code null} if there is none with that id
+   */
+  public Ingredient getById(String id) {
+    return id == null ? null : read().byId(id);
+  }
+
+  public Ingredient save(Ingredient ingredient) {
+    Ingredient saved = ingredientRepo.save(ingredient);
+    invalidate();
+    return saved;
+  }
+
+  public Iterable<Ingredient> saveAll(Iterable<Ingredient> ingredients) {
+    Iterable<Ingredient> saved = ingredientRepo.saveAll(ingredients);
+    invalidate();
+    return saved;
+  }
+
+  public void deleteAll() {
+    ingredientRepo.deleteAll();
+    invalidate();
+  }
+
+  /**
+   * Reloads the catalog from the repository and publishes the new
+   * snapshot. Loads are serialized so an older load can never replace
+   * a newer one.
+   */
+  public synchronized void refresh() {
+    snapshot = new Snapshot(++lastVersion, ingredientRepo.findAll());
+    refreshes.incrementAndGet();
+  }
+
+  /**
+   * Drops the snapshot so the next read loads a fresh one. Writes call
+   * this once they reach the repository, so a run of writes costs a
+   * single reload rather than one each.
+   */
+  public synchronized void invalidate() {
+    snapshot = null;
+  }
+
+  // Counts one hit or miss for each read a caller makes; internal
+  // lookups go through snapshot() and aren't counted.
+  private Snapshot read() {
+    Snapshot current = snapshot;
+    if (current != null) {
+      hits.incrementAndGet();
+      return current;
+    }
+    misses.incrementAndGet();
+    return load();
+  }
+
+  private Snapshot snapshot() {
+    Snapshot current = snapshot;
+    return current != null ? current : load();
+  }
+
+  private synchronized Snapshot load() {
+    if (snapshot == null) {
+      refresh();
+    }
+    return snapshot;
+  }
+
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("ingredient.catalog.requests", hits, AtomicLong::get)
+        .tag("result", "hit")
+        .description("Catalog reads served from the in-memory snapshot")
+        .register(registry);
+    FunctionCounter.builder("ingredient.catalog.requests", misses, AtomicLong::get)
+        .tag("result", "miss")
+        .description("Catalog reads that had to load the snapshot")
+        .register(registry);
+    FunctionCounter.builder("ingredient.catalog.refreshes", refreshes, AtomicLong::get)
+        .description("Times the snapshot was reloaded from the repository")
+        .register(registry);
+    Gauge.builder("ingredient.catalog.size", this,
+            catalog -> catalog.snapshot == null ? 0 : catalog.snapshot.all.size())
+        .description("Ingredients held in the current snapshot")
+        .register(registry);
+  }
+
+  /**
+   * Packs an id of up to four ASCII characters into a non-negative int,
+   * one byte per character, or returns -1 if the id doesn't fit.
+   */
+  static int packId(String id) {
+    int length = id.length();
+    if (length == 0 || length > 4) {
+      return -1;
+    }
+    int packed = 0;
+    for (int i = 0; i < length; i++) {
+      char c = id.charAt(i);
+      if (c == 0 || c > 0x7F) {
+        return -1;
+      }
+      packed = (packed << 8) | c;
+    }
+    return packed << (8 * (4 - length));
+  }
+
+  private static class Snapshot {
+
+    private final long version;
+    private final List<Ingredient> all;
+    private final Map<Type, List<Ingredient>> byType;
+
+    // Sorted packed ids with their ingredients at the same index, for
+    // lookups by binary search. Ids that can't be packed (none of the
+    // 4-character ingredient codes) fall back to a map.
+    private final int[] packedIds;
+    private final Ingredient[] packedIngredients;
+    private final Map<String, Ingredient> unpackedIds;
+
+    // Partitions the ingredients by type in a single pass.
+    Snapshot(long version, Iterable<Ingredient> ingredients) {
+      List<Ingredient> all = new ArrayList<>();
+      Map<Type, List<Ingredient>> byType = new EnumMap<>(Type.class);
+      for (Type type : Type.values()) {
+        byType.put(type, new ArrayList<>());
+      }
+      for (Ingredient ingredient : ingredients) {
+        all.add(ingredient);
+        byType.get(ingredient.getType()).add(ingredient);
+      }
+      byType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+      this.version = version;
+      this.all = Collections.unmodifiableList(all);
+      this.byType = Collections.unmodifiableMap(byType);
+
+      Ingredient[] sorted = all.stream()
+          .filter(ingredient -> packId(ingredient.getId()) >= 0)
+          .sorted((a, b) -> Integer.compare(packId(a.getId()), packId(b.getId())))
+          .toArray(Ingredient[]::new);
+      int[] packed = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        packed[i] = packId(sorted[i].getId());
+      }
+      Map<String, Ingredient> unpacked = new HashMap<>();
+      for (Ingredient ingredient : all) {
+        if (packId(ingredient.getId()) < 0) {
+          unpacked.put(ingredient.getId(), ingredient);
+        }
+      }
+      this.packedIds = packed;
+      this.packedIngredients = sorted;
+      this.unpackedIds = unpacked;
+    }
+
+    Ingredient byId(String id) {
+      int packed = packId(id);
+      if (packed < 0) {
+        return unpackedIds.get(id);
+      }
+      int index = Arrays.binarySearch(packedIds, packed);
+      return index < 0 ? null : packedIngredients[index];
+    }
+
+  }
+
+}
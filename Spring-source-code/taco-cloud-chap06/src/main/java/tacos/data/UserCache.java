@@ -0,0 +1,166 @@
+package tacos.data;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import tacos.User;
+
+/**
+ * Bounded, expiring cache of users by username, in front of
+ * {@link UserRepository}.
+ *
+ * Entries live for {@code taco.users.cache.ttl} and the least recently
+ * used entry is dropped once there are more than
+ * {@code taco.users.cache.maxSize}. Users saved through
+ * {@link #save(User)} are evicted so the next lookup sees the change;
+ * anything that writes users some other way must call
+ * {@link #invalidate(String)}. Unknown usernames are never cached.
+ */
+@Component
+public class UserCache {
+
+  private final UserRepository userRepo;
+  private final Clock clock;
+  private final long ttlMillis;
+
+  // Access-ordered, so the eldest entry is the least recently used.
+  // Guarded by itself.
+  private final Map<String, Entry> entries;
+
+  // Bumped on every invalidation, so a lookup that raced with one
+  // doesn't put back the user it loaded before the change.
+  private long invalidations;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public UserCache(UserRepository userRepo, UserCacheProps props) {
+    this(userRepo, props, Clock.systemUTC());
+  }
+
+  UserCache(UserRepository userRepo, UserCacheProps props, Clock clock) {
+    this.userRepo = userRepo;
+    this.clock = clock;
+    this.ttlMillis = props.getTtl().toMillis();
+    int maxSize = props.getMaxSize();
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > maxSize) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  // See IngredientCatalog for why the registry is looked up rather
+  // than the cache being a MeterBinder.
+  @Autowired
+  public UserCache(UserRepository userRepo, UserCacheProps props,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this(userRepo, props);
+    meterRegistry.ifAvailable(this::bindTo);
+  }
+
+  /**
+   * @return the user, or {@code null} if there is none with that name
+   */
+  public User findByUsername(String username) {
+    long now = clock.millis();
+    long seenInvalidations;
+    synchronized (entries) {
+      Entry entry = entries.get(username);
+      if (entry != null && entry.expiresAt > now) {
+        hits.incrementAndGet();
+        return entry.user;
+      }
+      if (entry != null) {
+        entries.remove(username);
+        evictions.incrementAndGet();
+      }
+      seenInvalidations = invalidations;
+    }
+
+    misses.incrementAndGet();
+    User user = userRepo.findByUsername(username);
+    if (user != null) {
+      synchronized (entries) {
+        if (invalidations == seenInvalidations) {
+          entries.put(username, new Entry(user, now + ttlMillis));
+        }
+      }
+    }
+    return user;
+  }
+
+  public User save(User user) {
+    User saved = userRepo.save(user);
+    invalidate(saved.getUsername());
+    return saved;
+  }
+
+  public void invalidate(String username) {
+    synchronized (entries) {
+      entries.remove(username);
+      invalidations++;
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+      invalidations++;
+    }
+  }
+
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("user.cache.requests", hits, AtomicLong::get)
+        .tag("result", "hit")
+        .description("User lookups served from the cache")
+        .register(registry);
+    FunctionCounter.builder("user.cache.requests", misses, AtomicLong::get)
+        .tag("result", "miss")
+        .description("User lookups that went to the repository")
+        .register(registry);
+    FunctionCounter.builder("user.cache.evictions", evictions, AtomicLong::get)
+        .description("Users dropped for age or to stay within the size bound")
+        .register(registry);
+    Gauge.builder("user.cache.size", this, UserCache::size)
+        .description("Users currently cached")
+        .register(registry);
+  }
+
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private static class Entry {
+
+    private final User user;
+    private final long expiresAt;
+
+    Entry(User user, long expiresAt) {
+      this.user = user;
+      this.expiresAt = expiresAt;
+    }
+
+  }
+
+}
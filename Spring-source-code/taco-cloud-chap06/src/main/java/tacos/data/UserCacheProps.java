@@ -0,0 +1,26 @@
+package tacos.data;
+import java.time.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.users.cache")
+@Data
+@Validated
+public class UserCacheProps {
+
+  @Min(value=1, message="must be at least 1")
+  private int maxSize = 1000;
+
+  @NotNull
+  private Duration ttl = Duration.ofMinutes(5);
+
+}
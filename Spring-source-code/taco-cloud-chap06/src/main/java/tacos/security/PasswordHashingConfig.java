@@ -0,0 +1,23 @@
+package tacos.security;
+
+import org.springframework.boot.context.properties.
+                                  EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProps.class)
+public class PasswordHashingConfig {
+
+  @Bean
+  public PasswordEncoder encoder(PasswordHashingProps hashingProps) {
+    return new ThrottledPasswordEncoder(
+        new BCryptPasswordEncoder(hashingProps.getStrength()),
+        hashingProps.getMaxConcurrent(),
+        hashingProps.getMaxWaiting(),
+        hashingProps.getTimeout());
+  }
+
+}
@@ -0,0 +1,38 @@
+package tacos.security;
+import java.time.Duration;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix="taco.security.password")
+@Data
+@Validated
+public class PasswordHashingProps {
+
+  // BCrypt log rounds. Raising it rehashes each user's password the
+  // next time they log in.
+  @Min(value=4, message="must be between 4 and 31")
+  @Max(value=31, message="must be between 4 and 31")
+  private int strength = 10;
+
+  // How many password hashes may run at once, on the request threads
+  // that need them.
+  @Min(value=1, message="must be at least 1")
+  private int maxConcurrent = Runtime.getRuntime().availableProcessors();
+
+  // How many more requests may wait for a turn before logins fail.
+  @Min(value=0, message="must not be negative")
+  private int maxWaiting = 64;
+
+  // How long a request waits for its turn to hash.
+  @NotNull
+  private Duration timeout = Duration.ofSeconds(5);
+
+}
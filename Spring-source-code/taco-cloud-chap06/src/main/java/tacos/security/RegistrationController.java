@@ -4,18 +4,18 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import tacos.data.UserRepository;
+import tacos.data.UserCache;
 
 @Controller
 @RequestMapping("/register")
 public class RegistrationController {
   
-  private UserRepository userRepo;
+  private UserCache userCache;
   private PasswordEncoder passwordEncoder;
 
   public RegistrationController(
-      UserRepository userRepo, PasswordEncoder passwordEncoder) {
-    this.userRepo = userRepo;
+      UserCache userCache, PasswordEncoder passwordEncoder) {
+    this.userCache = userCache;
     this.passwordEncoder = passwordEncoder;
   }
   
@@ -26,7 +26,7 @@ public class RegistrationController {
   
   @PostMapping
   public String processRegistration(RegistrationForm form) {
-    userRepo.save(form.toUser(passwordEncoder));
+    userCache.save(form.toUser(passwordEncoder));
     return "redirect:/login";
   }
 
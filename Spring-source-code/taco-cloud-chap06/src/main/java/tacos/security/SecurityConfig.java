@@ -1,6 +1,5 @@
 package tacos.security;
 
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web
                         .configuration.EnableWebSecurity;
@@ -12,7 +11,6 @@ import org.springframework.security.config.annotation
 import org.springframework.security.config.annotation.web
              .builders.HttpSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
@@ -22,6 +20,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private UserDetailsService userDetailsService;
 
+  // Defined in PasswordHashingConfig, so that it can be injected here.
+  @Autowired
+  private PasswordEncoder encoder;
+
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http
@@ -50,18 +52,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
       ;
   }
 
-  @Bean
-  public PasswordEncoder encoder() {
-    return new BCryptPasswordEncoder();
-  }
-
+  // UserRepositoryUserDetailsService is also a UserDetailsPasswordService,
+  // so passwords hashed at an older strength are rehashed on login.
   @Override
   protected void configure(AuthenticationManagerBuilder auth)
       throws Exception {
 
     auth
       .userDetailsService(userDetailsService)
-      .passwordEncoder(encoder());
+      .passwordEncoder(encoder);
 
   }
 
@@ -0,0 +1,77 @@
+package tacos.security;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Limits how many hashes a slow {@link PasswordEncoder} runs at once.
+ *
+ * Each hash runs on the calling thread, as it would without this
+ * class, but no more than {@code maxConcurrent} run at once, so a
+ * burst of logins can't take every core away from other requests. Up
+ * to {@code maxWaiting} more callers wait their turn, each for no
+ * longer than the timeout. Callers beyond that, or that time out, fail
+ * straight away with an {@link AuthenticationServiceException}, which
+ * form login reports as a failed login.
+ */
+public class ThrottledPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final Semaphore admitted;
+  private final Semaphore hashing;
+  private final long timeoutNanos;
+
+  public ThrottledPasswordEncoder(PasswordEncoder delegate,
+      int maxConcurrent, int maxWaiting, Duration timeout) {
+    this.delegate = delegate;
+    this.admitted = new Semaphore(maxConcurrent + maxWaiting);
+    this.hashing = new Semaphore(maxConcurrent, true);
+    this.timeoutNanos = timeout.toNanos();
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return throttled(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return throttled(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  // Cheap, and called on every successful login, so it isn't limited.
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T throttled(Supplier<T> hash) {
+    if (!admitted.tryAcquire()) {
+      throw new AuthenticationServiceException(
+          "Too many password checks in progress");
+    }
+    try {
+      if (!hashing.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+        throw new AuthenticationServiceException(
+            "Timed out waiting for a password check");
+      }
+      try {
+        return hash.get();
+      } finally {
+        hashing.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AuthenticationServiceException(
+          "Interrupted waiting for a password check", e);
+    } finally {
+      admitted.release();
+    }
+  }
+
+}
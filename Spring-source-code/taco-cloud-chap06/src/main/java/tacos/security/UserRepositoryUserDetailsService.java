@@ -1,6 +1,8 @@
 package tacos.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.
+                                      UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.
                                               UserDetailsService;
 import org.springframework.security.core.userdetails.
@@ -8,23 +10,23 @@ import org.springframework.security.core.userdetails.
 import org.springframework.stereotype.Service;
 
 import tacos.User;
-import tacos.data.UserRepository;
+import tacos.data.UserCache;
 
 @Service
 public class UserRepositoryUserDetailsService 
-        implements UserDetailsService {
+        implements UserDetailsService, UserDetailsPasswordService {
 
-  private UserRepository userRepo;
+  private UserCache userCache;
 
   @Autowired
-  public UserRepositoryUserDetailsService(UserRepository userRepo) {
-    this.userRepo = userRepo;
+  public UserRepositoryUserDetailsService(UserCache userCache) {
+    this.userCache = userCache;
   }
   
   @Override
   public UserDetails loadUserByUsername(String username)
       throws UsernameNotFoundException {
-    User user = userRepo.findByUsername(username);
+    User user = userCache.findByUsername(username);
     if (user != null) {
       return user;
     }
@@ -32,4 +34,15 @@ public class UserRepositoryUserDetailsService
                     "User '" + username + "' not found");
   }
 
+  @Override
+  public UserDetails updatePassword(UserDetails details,
+      String newPassword) {
+    User user = (User) details;
+    User rehashed = new User(user.getUsername(), newPassword,
+        user.getFullname(), user.getStreet(), user.getCity(),
+        user.getState(), user.getZip(), user.getPhoneNumber());
+    rehashed.setId(user.getId());
+    return userCache.save(rehashed);
+  }
+
 }
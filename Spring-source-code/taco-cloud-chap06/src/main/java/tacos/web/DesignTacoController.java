@@ -1,9 +1,10 @@
 package tacos.web;
 
 import java.security.Principal;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import javax.validation.Valid;
 
@@ -22,41 +23,36 @@ import tacos.Ingredient.Type;
 import tacos.TacoOrder;
 import tacos.Taco;
 import tacos.User;
-import tacos.data.IngredientRepository;
+import tacos.data.IngredientCatalog;
 import tacos.data.TacoRepository;
-import tacos.data.UserRepository;
+import tacos.data.UserCache;
 
 @Controller
 @RequestMapping("/design")
 @SessionAttributes("order")
 public class DesignTacoController {
 
-  private final IngredientRepository ingredientRepo;
+  private final IngredientCatalog ingredientCatalog;
+
+  private volatile DesignIngredients designIngredients;
 
   private TacoRepository tacoRepo;
 
-  private UserRepository userRepo;
+  private UserCache userCache;
 
   @Autowired
   public DesignTacoController(
-        IngredientRepository ingredientRepo,
+        IngredientCatalog ingredientCatalog,
         TacoRepository tacoRepo,
-        UserRepository userRepo) {
-    this.ingredientRepo = ingredientRepo;
+        UserCache userCache) {
+    this.ingredientCatalog = ingredientCatalog;
     this.tacoRepo = tacoRepo;
-    this.userRepo = userRepo;
+    this.userCache = userCache;
   }
 
   @ModelAttribute
   public void addIngredientsToModel(Model model) {
-    List<Ingredient> ingredients = new ArrayList<>();
-    ingredientRepo.findAll().forEach(i -> ingredients.add(i));
-
-    Type[] types = Ingredient.Type.values();
-    for (Type type : types) {
-      model.addAttribute(type.toString().toLowerCase(),
-          filterByType(ingredients, type));
-    }
+    model.addAllAttributes(designIngredients().byAttribute);
   }
 
   @ModelAttribute(name = "order")
@@ -72,7 +68,7 @@ public class DesignTacoController {
   @ModelAttribute(name = "user")
   public User user(Principal principal) {
 	    String username = principal.getName();
-	    User user = userRepo.findByUsername(username);
+	    User user = userCache.findByUsername(username);
 	    return user;
   }
 
@@ -97,12 +93,36 @@ public class DesignTacoController {
     return "redirect:/orders/current";
   }
 
-  private Iterable<Ingredient> filterByType(
-      List<Ingredient> ingredients, Type type) {
-    return ingredients
-              .stream()
-              .filter(x -> x.getType().equals(type))
-              .collect(Collectors.toList());
+  // One catalog read per render: each snapshot hands out its own
+  // grouping instance, so the memo is rebuilt only when that changes.
+  private DesignIngredients designIngredients() {
+    Map<Type, List<Ingredient>> byType = ingredientCatalog.findAllByType();
+    DesignIngredients current = designIngredients;
+    if (current == null || current.byType != byType) {
+      current = new DesignIngredients(byType);
+      designIngredients = current;
+    }
+    return current;
+  }
+
+  /**
+   * The per-type ingredient lists keyed by their model attribute name,
+   * built once per catalog snapshot and shared by every request.
+   */
+  private static class DesignIngredients {
+
+    private final Map<Type, List<Ingredient>> byType;
+    private final Map<String, List<Ingredient>> byAttribute;
+
+    DesignIngredients(Map<Type, List<Ingredient>> byType) {
+      Map<String, List<Ingredient>> byAttribute = new LinkedHashMap<>();
+      for (Type type : Type.values()) {
+        byAttribute.put(type.toString().toLowerCase(), byType.get(type));
+      }
+      this.byType = byType;
+      this.byAttribute = Collections.unmodifiableMap(byAttribute);
+    }
+
   }
 
 }
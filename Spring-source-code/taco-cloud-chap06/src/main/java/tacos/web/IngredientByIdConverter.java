@@ -5,21 +5,21 @@ import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
 import tacos.Ingredient;
-import tacos.data.IngredientRepository;
+import tacos.data.IngredientCatalog;
 
 @Component
 public class IngredientByIdConverter implements Converter<String, Ingredient> {
 
-  private IngredientRepository ingredientRepo;
+  private IngredientCatalog ingredientCatalog;
 
   @Autowired
-  public IngredientByIdConverter(IngredientRepository ingredientRepo) {
-    this.ingredientRepo = ingredientRepo;
+  public IngredientByIdConverter(IngredientCatalog ingredientCatalog) {
+    this.ingredientCatalog = ingredientCatalog;
   }
 
   @Override
   public Ingredient convert(String id) {
-    return ingredientRepo.findById(id).orElse(null);
+    return ingredientCatalog.getById(id);
   }
 
 }
@@ -18,20 +18,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import tacos.Ingredient.Type;
+import tacos.data.IngredientCatalog;
 import tacos.data.IngredientRepository;
 import tacos.data.OrderRepository;
 import tacos.data.TacoRepository;
+import tacos.data.UserCache;
+import tacos.data.UserCacheProps;
 import tacos.data.UserRepository;
 import tacos.web.DesignTacoController;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(DesignTacoController.class)
+@Import({IngredientCatalog.class, UserCache.class, UserCacheProps.class})
 public class DesignTacoControllerTest {
 
   @Autowired
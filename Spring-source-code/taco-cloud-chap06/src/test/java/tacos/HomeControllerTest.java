@@ -15,9 +15,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import tacos.data.IngredientCatalog;
 import tacos.data.IngredientRepository;
 import tacos.data.OrderRepository;
 import tacos.data.TacoRepository;
+import tacos.data.UserCache;
 import tacos.data.UserRepository;
 import tacos.web.OrderProps;
 
@@ -35,6 +37,9 @@ public class HomeControllerTest {
   @MockBean
   private IngredientRepository ingredientRepository;
 
+  @MockBean
+  private IngredientCatalog ingredientCatalog;
+
   @MockBean
   private TacoRepository designRepository;
 
@@ -43,6 +48,9 @@ public class HomeControllerTest {
 
   @MockBean
   private UserRepository userRepository;
+
+  @MockBean
+  private UserCache userCache;
   
   @MockBean
   private PasswordEncoder passwordEncoder;
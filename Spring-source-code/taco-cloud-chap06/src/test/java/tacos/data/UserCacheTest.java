@@ -0,0 +1,137 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import tacos.User;
+
+public class UserCacheTest {
+
+  private UserRepository userRepo;
+
+  private MutableClock clock;
+
+  private UserCache cache;
+
+  @BeforeEach
+  public void setup() {
+    userRepo = mock(UserRepository.class);
+    when(userRepo.findByUsername("habuma")).thenReturn(user("habuma"));
+    when(userRepo.findByUsername("buzz")).thenReturn(user("buzz"));
+    clock = new MutableClock();
+
+    UserCacheProps props = new UserCacheProps();
+    props.setMaxSize(1);
+    props.setTtl(Duration.ofMinutes(5));
+    cache = new UserCache(userRepo, props, clock);
+  }
+
+  @Test
+  public void shouldServeRepeatLookupsFromMemory() {
+    for (int i = 0; i < 10; i++) {
+      assertThat(cache.findByUsername("habuma").getUsername())
+          .isEqualTo("habuma");
+    }
+
+    verify(userRepo, times(1)).findByUsername("habuma");
+  }
+
+  @Test
+  public void shouldReloadAfterTheTtl() {
+    cache.findByUsername("habuma");
+    clock.advance(Duration.ofMinutes(5));
+    cache.findByUsername("habuma");
+
+    verify(userRepo, times(2)).findByUsername("habuma");
+  }
+
+  @Test
+  public void shouldEvictTheLeastRecentlyUsedUser() {
+    cache.findByUsername("habuma");
+    cache.findByUsername("buzz");
+    cache.findByUsername("habuma");
+
+    verify(userRepo, times(2)).findByUsername("habuma");
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldInvalidateOnSave() {
+    cache.findByUsername("habuma");
+    User updated = user("habuma");
+    when(userRepo.save(updated)).thenReturn(updated);
+    when(userRepo.findByUsername("habuma")).thenReturn(updated);
+
+    cache.save(updated);
+
+    assertThat(cache.findByUsername("habuma")).isSameAs(updated);
+  }
+
+  @Test
+  public void shouldNotCacheUnknownUsers() {
+    assertThat(cache.findByUsername("nobody")).isNull();
+    assertThat(cache.findByUsername("nobody")).isNull();
+
+    verify(userRepo, times(2)).findByUsername("nobody");
+  }
+
+  @Test
+  public void shouldCountHitsAndMisses() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    cache.bindTo(registry);
+
+    cache.findByUsername("habuma");
+    cache.findByUsername("habuma");
+    cache.findByUsername("habuma");
+
+    assertThat(registry.get("user.cache.requests").tag("result", "hit")
+        .functionCounter().count()).isEqualTo(2);
+    assertThat(registry.get("user.cache.requests").tag("result", "miss")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("user.cache.size").gauge().value()).isEqualTo(1);
+  }
+
+  private static User user(String username) {
+    return new User(username, "password", "Craig Walls",
+        "123 North Street", "Cross Roads", "TX", "76227", "123-123-1234");
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T12:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(java.time.ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+  }
+
+}
@@ -0,0 +1,261 @@
+package tacos.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import tacos.User;
+import tacos.data.UserCache;
+
+public class ThrottledPasswordEncoderTest {
+
+  private ThrottledPasswordEncoder encoder;
+
+  @Test
+  public void shouldEncodeAndMatch() {
+    encoder = new ThrottledPasswordEncoder(new BCryptPasswordEncoder(4),
+        2, 4, Duration.ofSeconds(5));
+
+    String encoded = encoder.encode("password");
+
+    assertThat(encoded).startsWith("$2a$04$");
+    assertThat(encoder.matches("password", encoded)).isTrue();
+    assertThat(encoder.matches("wrong", encoded)).isFalse();
+  }
+
+  @Test
+  public void shouldNeverRunMoreHashesThanTheLimit() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    PasswordEncoder slow = mock(PasswordEncoder.class);
+    when(slow.matches(any(), any())).thenAnswer(invocation -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      Thread.sleep(20);
+      running.decrementAndGet();
+      return true;
+    });
+    encoder = new ThrottledPasswordEncoder(slow, 2, 16, Duration.ofSeconds(5));
+
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      results.add(callers.submit(() -> encoder.matches("password", "hash")));
+    }
+    for (Future<Boolean> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+    callers.shutdown();
+
+    assertThat(maxRunning.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldRejectChecksBeyondTheLimitAndWaiters() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    PasswordEncoder blocked = mock(PasswordEncoder.class);
+    when(blocked.matches(any(), any())).thenAnswer(invocation -> {
+      started.countDown();
+      release.await();
+      return true;
+    });
+    encoder = new ThrottledPasswordEncoder(blocked, 1, 0, Duration.ofSeconds(5));
+
+    ExecutorService caller = Executors.newSingleThreadExecutor();
+    Future<Boolean> first = caller.submit(
+        () -> encoder.matches("password", "hash"));
+    started.await(5, TimeUnit.SECONDS);
+
+    assertThatExceptionOfType(AuthenticationServiceException.class)
+        .isThrownBy(() -> encoder.matches("password", "hash"));
+
+    release.countDown();
+    assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+    caller.shutdown();
+  }
+
+  @Test
+  public void shouldGiveUpWaitingAfterTheTimeout() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    PasswordEncoder blocked = mock(PasswordEncoder.class);
+    when(blocked.matches(any(), any())).thenAnswer(invocation -> {
+      started.countDown();
+      release.await();
+      return true;
+    });
+    encoder = new ThrottledPasswordEncoder(
+        blocked, 1, 1, Duration.ofMillis(50));
+
+    ExecutorService caller = Executors.newSingleThreadExecutor();
+    Future<Boolean> first = caller.submit(
+        () -> encoder.matches("password", "hash"));
+    started.await(5, TimeUnit.SECONDS);
+
+    assertThatExceptionOfType(AuthenticationServiceException.class)
+        .isThrownBy(() -> encoder.matches("password", "hash"))
+        .withMessageContaining("Timed out");
+
+    release.countDown();
+    assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+    caller.shutdown();
+  }
+
+  @Test
+  public void shouldRehashOnLoginWhenTheStrengthGoesUp() {
+    String oldHash = new BCryptPasswordEncoder(4).encode("password");
+    User stored = new User("habuma", oldHash, "Craig Walls",
+        "123 North Street", "Cross Roads", "TX", "76227", "123-123-1234");
+    stored.setId(42L);
+    UserCache userCache = mock(UserCache.class);
+    when(userCache.findByUsername("habuma")).thenReturn(stored);
+    when(userCache.save(any(User.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    encoder = new ThrottledPasswordEncoder(new BCryptPasswordEncoder(5),
+        1, 1, Duration.ofSeconds(5));
+    UserRepositoryUserDetailsService userDetailsService =
+        new UserRepositoryUserDetailsService(userCache);
+    DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+    provider.setPasswordEncoder(encoder);
+    provider.setUserDetailsService(userDetailsService);
+    provider.setUserDetailsPasswordService(userDetailsService);
+
+    provider.authenticate(
+        new UsernamePasswordAuthenticationToken("habuma", "password"));
+
+    ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+    verify(userCache).save(saved.capture());
+    assertThat(saved.getValue().getId()).isEqualTo(42L);
+    assertThat(saved.getValue().getPassword()).startsWith("$2a$05$");
+    assertThat(encoder.matches("password", saved.getValue().getPassword()))
+        .isTrue();
+  }
+
+  /**
+   * Runs a login storm for -Dtacos.bench.logins seconds (e.g. 10) while
+   * other threads keep rendering a stand-in for the /design page: first
+   * the page on its own, then with BCrypt unlimited on the calling
+   * threads as before, then limited to one hash per core. Each run prints logins per
+   * second, overall and per core, and the design page's throughput and
+   * p99 latency.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "tacos.bench.logins", matches = "\\d+")
+  public void loginsPerSecondPerCoreAlongsideDesignTraffic() throws Exception {
+    long nanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("tacos.bench.logins"));
+    int cores = Runtime.getRuntime().availableProcessors();
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(10);
+    String hash = bcrypt.encode("password");
+    encoder = new ThrottledPasswordEncoder(bcrypt, cores, 64, Duration.ofSeconds(5));
+
+    System.out.printf("%d cores, BCrypt strength 10, %d login and %d design threads%n",
+        cores, 4 * cores, 2 * cores);
+    System.out.printf("%-8s %10s %15s %8s %14s %14s%n",
+        "hashing", "logins/s", "logins/s/core", "failed", "design req/s", "design p99 ms");
+    runLoginStorm("none", null, hash, nanos, cores);
+    runLoginStorm("direct", bcrypt, hash, nanos, cores);
+    runLoginStorm("limited", encoder, hash, nanos, cores);
+  }
+
+  private void runLoginStorm(String label, PasswordEncoder logins, String hash,
+      long nanos, int cores) throws Exception {
+    ExecutorService threads = Executors.newFixedThreadPool(6 * cores);
+    long deadline = System.nanoTime() + nanos;
+    AtomicLong succeeded = new AtomicLong();
+    AtomicLong failed = new AtomicLong();
+
+    List<Future<List<Long>>> design = new ArrayList<>();
+    for (int i = 0; i < 2 * cores; i++) {
+      design.add(threads.submit(() -> {
+        List<Long> latencies = new ArrayList<>();
+        long sink = 0;
+        while (System.nanoTime() < deadline) {
+          long start = System.nanoTime();
+          sink += renderDesignPage();
+          latencies.add(System.nanoTime() - start);
+        }
+        assertThat(sink).isPositive();
+        return latencies;
+      }));
+    }
+    for (int i = 0; logins != null && i < 4 * cores; i++) {
+      threads.submit(() -> {
+        while (System.nanoTime() < deadline) {
+          try {
+            if (logins.matches("password", hash)) {
+              succeeded.incrementAndGet();
+            }
+          } catch (AuthenticationServiceException e) {
+            failed.incrementAndGet();
+          }
+        }
+      });
+    }
+
+    List<Long> latencies = new ArrayList<>();
+    for (Future<List<Long>> result : design) {
+      latencies.addAll(result.get());
+    }
+    threads.shutdown();
+    assertThat(threads.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+    Collections.sort(latencies);
+
+    double seconds = nanos / 1e9;
+    System.out.printf("%-8s %10.1f %15.1f %8d %14.0f %14.3f%n", label,
+        succeeded.get() / seconds, succeeded.get() / seconds / cores, failed.get(),
+        latencies.size() / seconds,
+        latencies.get((int) (latencies.size() * 0.99)) / 1e6);
+  }
+
+  private static final String[][] DESIGN_INGREDIENTS = {
+      { "FLTO", "Flour Tortilla", "WRAP" }, { "COTO", "Corn Tortilla", "WRAP" },
+      { "GRBF", "Ground Beef", "PROTEIN" }, { "CARN", "Carnitas", "PROTEIN" },
+      { "TMTO", "Diced Tomatoes", "VEGGIES" }, { "LETC", "Lettuce", "VEGGIES" },
+      { "CHED", "Cheddar", "CHEESE" }, { "JACK", "Monterrey Jack", "CHEESE" },
+      { "SLSA", "Salsa", "SAUCE" }, { "SRCR", "Sour Cream", "SAUCE" } };
+
+  // Stands in for a /design request: the ingredient checkboxes, grouped
+  // by type, written out as markup.
+  private static int renderDesignPage() {
+    StringBuilder page = new StringBuilder();
+    for (String type : new String[] { "WRAP", "PROTEIN", "VEGGIES", "CHEESE", "SAUCE" }) {
+      page.append("<div class=\"ingredient-group\"><h3>")
+          .append(type.toLowerCase()).append("</h3>");
+      for (String[] ingredient : DESIGN_INGREDIENTS) {
+        if (ingredient[2].equals(type)) {
+          page.append(String.format(
+              "<div><input type=\"checkbox\" name=\"ingredients\" value=\"%s\"/>"
+              + "<span>%s</span></div>", ingredient[0], ingredient[1]));
+        }
+      }
+      page.append("</div>");
+    }
+    return page.length();
+  }
+
+}
@@ -2,41 +2,68 @@ package tacos.web;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
-import java.util.Optional;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import tacos.Ingredient;
 import tacos.Ingredient.Type;
+import tacos.data.IngredientCatalog;
 import tacos.data.IngredientRepository;
 
 public class IngredientByIdConverterTest {
 
+  private IngredientRepository ingredientRepo;
+
   private IngredientByIdConverter converter;
 
   @BeforeEach
   public void setup() {
-    IngredientRepository ingredientRepo = mock(IngredientRepository.class);
-    when(ingredientRepo.findById("AAAA"))
-        .thenReturn(Optional.of(new Ingredient("AAAA", "TEST INGREDIENT", Type.CHEESE)));
-    when(ingredientRepo.findById("ZZZZ"))
-        .thenReturn(Optional.empty());
-    
-    this.converter = new IngredientByIdConverter(ingredientRepo);
+    ingredientRepo = mock(IngredientRepository.class);
+    when(ingredientRepo.findAll())
+        .thenReturn(Arrays.asList(
+            new Ingredient("MMMM", "OTHER INGREDIENT", Type.SAUCE),
+            new Ingredient("AAAA", "TEST INGREDIENT", Type.CHEESE),
+            new Ingredient("AB", "SHORT INGREDIENT", Type.WRAP),
+            new Ingredient("éTé", "ACCENTED INGREDIENT", Type.VEGGIES)));
+
+    this.converter = new IngredientByIdConverter(
+        new IngredientCatalog(ingredientRepo));
   }
-  
+
   @Test
   public void shouldReturnValueWhenPresent() {
     assertThat(converter.convert("AAAA"))
         .isEqualTo(new Ingredient("AAAA", "TEST INGREDIENT", Type.CHEESE));
+    assertThat(converter.convert("AB"))
+        .isEqualTo(new Ingredient("AB", "SHORT INGREDIENT", Type.WRAP));
+    assertThat(converter.convert("éTé"))
+        .isEqualTo(new Ingredient("éTé", "ACCENTED INGREDIENT", Type.VEGGIES));
   }
 
   @Test
   public void shouldReturnNullWhenMissing() {
     assertThat(converter.convert("ZZZZ")).isNull();
+    assertThat(converter.convert("AB\u0000\u0000")).isNull();
+    assertThat(converter.convert("AAAAA")).isNull();
+    assertThat(converter.convert("")).isNull();
+  }
+
+  @Test
+  public void shouldNotQueryPerConversion() {
+    for (int i = 0; i < 100; i++) {
+      converter.convert("AAAA");
+      converter.convert("ZZZZ");
+    }
+
+    verify(ingredientRepo, times(1)).findAll();
+    verifyNoMoreInteractions(ingredientRepo);
   }
 
 }
@@ -0,0 +1,165 @@
+package tacos.data;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts committed writes per entity type, so that the REST API can
+ * answer a conditional GET for an unchanged resource without going to
+ * the database.
+ *
+ * Each type has two versions. The list version moves on every insert,
+ * update and delete, and suits resources listing that type. The item
+ * version moves only on updates and deletes, because an insert can't
+ * change an entity that already existed, and suits single-entity
+ * resources. Read the version before reading the data, so a write
+ * racing with the read can only cause a needless 200, never a stale
+ * 304.
+ *
+ * Only writes that go through Hibernate's entity events are seen. Code
+ * that writes with JPQL or SQL updates must call
+ * {@link #changed(Class)} itself once its transaction commits.
+ */
+@Component
+public class DataVersions implements PostCommitInsertEventListener,
+    PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+    SmartInitializingSingleton {
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final Clock clock;
+
+  // Versions from before a restart must not match ones from after it.
+  private final long epoch;
+
+  private final Map<Class<?>, Version> lists = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Version> items = new ConcurrentHashMap<>();
+
+  @Autowired
+  public DataVersions(EntityManagerFactory entityManagerFactory) {
+    this(entityManagerFactory, Clock.systemUTC());
+  }
+
+  DataVersions(EntityManagerFactory entityManagerFactory, Clock clock) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.clock = clock;
+    this.epoch = clock.millis();
+  }
+
+  /**
+   * The version of any resource that lists entities of this type.
+   */
+  public Version list(Class<?> type) {
+    return lists.computeIfAbsent(type, t -> new Version(epoch, 0, epoch));
+  }
+
+  /**
+   * The version shared by every single-entity resource of this type.
+   */
+  public Version item(Class<?> type) {
+    return items.computeIfAbsent(type, t -> new Version(epoch, 0, epoch));
+  }
+
+  public void added(Class<?> type) {
+    bump(lists, type);
+  }
+
+  public void changed(Class<?> type) {
+    bump(lists, type);
+    bump(items, type);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    EventListenerRegistry registry = entityManagerFactory
+        .unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+    registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    added(event.getEntity().getClass());
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    changed(event.getEntity().getClass());
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    changed(event.getEntity().getClass());
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent event) {
+  }
+
+  @Override
+  public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+  }
+
+  @Override
+  public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return true;
+  }
+
+  private void bump(Map<Class<?>, Version> versions, Class<?> type) {
+    long now = clock.millis();
+    versions.compute(type, (t, current) -> current == null
+        ? new Version(epoch, 1, now)
+        : new Version(epoch, current.counter + 1,
+            Math.max(now, current.lastModified)));
+  }
+
+  public static final class Version {
+
+    private final long epoch;
+    private final long counter;
+    private final long lastModified;
+
+    Version(long epoch, long counter, long lastModified) {
+      this.epoch = epoch;
+      this.counter = counter;
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * An entity tag for this version, to be qualified by the resource
+     * it's used for.
+     */
+    public String getTag() {
+      return Long.toHexString(epoch) + "-" + counter;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+  }
+
+}
@@ -0,0 +1,29 @@
+package tacos.data;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Has Hibernate group inserts into JDBC batches of
+ * {@value #JDBC_BATCH_SIZE}, ordered by table, for
+ * {@link OrderBatchSaver}. A
+ * {@code spring.jpa.properties.hibernate.jdbc.batch_size} or
+ * {@code order_inserts} setting takes precedence.
+ */
+@Configuration
+public class JdbcBatchingConfig {
+
+  static final int JDBC_BATCH_SIZE = 50;
+
+  @Bean
+  public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+    return properties -> {
+      properties.putIfAbsent(
+          AvailableSettings.STATEMENT_BATCH_SIZE, JDBC_BATCH_SIZE);
+      properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+    };
+  }
+
+}
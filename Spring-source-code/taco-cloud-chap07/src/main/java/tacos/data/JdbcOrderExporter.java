@@ -0,0 +1,188 @@
+package tacos.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes every order, with its tacos and their ingredient ids, as
+ * newline-delimited JSON.
+ *
+ * Orders are read with a single forward-only query and written as the
+ * rows arrive, so at most one order is ever held in memory. The query
+ * runs in a read-only transaction because some drivers (PostgreSQL
+ * among them) only honour the fetch size with auto-commit off.
+ */
+@Component
+public class JdbcOrderExporter {
+
+  private static final String SELECT_ORDERS =
+      "select o.id, o.placed_at, o.delivery_name, o.delivery_street,"
+      + " o.delivery_city, o.delivery_state, o.delivery_zip,"
+      + " t.id as taco_id, t.name as taco_name,"
+      + " t.created_at as taco_created_at,"
+      + " ti.ingredients_id as ingredient"
+      + " from Taco_Order o"
+      + " left join Taco_Order_Tacos ot on ot.taco_order_id = o.id"
+      + " left join Taco t on t.id = ot.tacos_id"
+      + " left join Taco_Ingredients ti on ti.taco_id = t.id"
+      + " order by o.id, t.id";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTx;
+  private final ObjectMapper objectMapper;
+
+  public JdbcOrderExporter(JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager txManager, ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.readOnlyTx = new TransactionTemplate(txManager);
+    this.readOnlyTx.setReadOnly(true);
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Streams all orders to {@code out}, one JSON object per line. The
+   * stream is flushed but not closed.
+   *
+   * @param fetchSize rows the driver fetches per round trip
+   * @return the number of orders written
+   */
+  public long export(OutputStream out, int fetchSize) throws IOException {
+    try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Lines are ended by hand; the default separator would start
+      // every line after the first with a space.
+      json.setRootValueSeparator(null);
+      NdjsonWriter writer = new NdjsonWriter(json);
+      readOnlyTx.executeWithoutResult(status ->
+          jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ORDERS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+          }, writer));
+      writer.finish();
+      return writer.orders;
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Turns the joined rows (ordered by order id, then taco id) back into
+   * one JSON object per order, closing each object as soon as the next
+   * order's first row shows up.
+   */
+  private static class NdjsonWriter implements RowCallbackHandler {
+
+    private final JsonGenerator json;
+
+    private long orders;
+    private long orderId;
+    private long tacoId;
+    private boolean inTaco;
+
+    NdjsonWriter(JsonGenerator json) {
+      this.json = json;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      try {
+        long id = rs.getLong("id");
+        if (orders == 0 || id != orderId) {
+          endOrder();
+          startOrder(id, rs);
+        }
+        long taco = rs.getLong("taco_id");
+        if (rs.wasNull()) {
+          return;
+        }
+        if (!inTaco || taco != tacoId) {
+          endTaco();
+          startTaco(taco, rs);
+        }
+        String ingredient = rs.getString("ingredient");
+        if (ingredient != null) {
+          json.writeString(ingredient);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    void finish() throws IOException {
+      endOrder();
+      json.flush();
+    }
+
+    private void startOrder(long id, ResultSet rs)
+        throws IOException, SQLException {
+      orderId = id;
+      orders++;
+      json.writeStartObject();
+      json.writeNumberField("id", id);
+      writeTimestampField("placedAt", rs.getTimestamp("placed_at"));
+      json.writeStringField("deliveryName", rs.getString("delivery_name"));
+      json.writeStringField("deliveryStreet", rs.getString("delivery_street"));
+      json.writeStringField("deliveryCity", rs.getString("delivery_city"));
+      json.writeStringField("deliveryState", rs.getString("delivery_state"));
+      json.writeStringField("deliveryZip", rs.getString("delivery_zip"));
+      json.writeArrayFieldStart("tacos");
+    }
+
+    private void endOrder() throws IOException {
+      if (orders == 0) {
+        return;
+      }
+      endTaco();
+      json.writeEndArray();
+      json.writeEndObject();
+      json.writeRaw('\n');
+    }
+
+    private void startTaco(long id, ResultSet rs)
+        throws IOException, SQLException {
+      tacoId = id;
+      inTaco = true;
+      json.writeStartObject();
+      json.writeNumberField("id", id);
+      json.writeStringField("name", rs.getString("taco_name"));
+      writeTimestampField("createdAt", rs.getTimestamp("taco_created_at"));
+      json.writeArrayFieldStart("ingredients");
+    }
+
+    private void endTaco() throws IOException {
+      if (!inTaco) {
+        return;
+      }
+      inTaco = false;
+      json.writeEndArray();
+      json.writeEndObject();
+    }
+
+    private void writeTimestampField(String name, Timestamp timestamp)
+        throws IOException {
+      if (timestamp == null) {
+        json.writeNullField(name);
+      } else {
+        json.writeStringField(name, timestamp.toInstant().toString());
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,183 @@
+package tacos.data;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import tacos.TacoOrder;
+
+/**
+ * Applies a merge patch to an order's delivery and payment details
+ * with a single {@code UPDATE} of the {@code Taco_Order} row, setting
+ * only the columns named in the patch. The order's tacos are never
+ * loaded or written, so a patch costs the same however many tacos the
+ * order holds.
+ *
+ * An order's tag is a hash of those patchable columns. A patch made
+ * against a tag only updates the row if every column still holds the
+ * values the tag was taken from, checked in the {@code UPDATE}'s own
+ * {@code WHERE} clause, so two clients patching from the same tag
+ * can't both succeed.
+ */
+@Component
+public class JdbcOrderPatcher {
+
+  // Patchable properties and the columns they map to.
+  private static final Map<String, String> COLUMNS;
+  static {
+    Map<String, String> columns = new LinkedHashMap<>();
+    columns.put("deliveryName", "delivery_name");
+    columns.put("deliveryStreet", "delivery_street");
+    columns.put("deliveryCity", "delivery_city");
+    columns.put("deliveryState", "delivery_state");
+    columns.put("deliveryZip", "delivery_zip");
+    columns.put("ccNumber", "cc_number");
+    columns.put("ccExpiration", "cc_expiration");
+    columns.put("ccCVV", "cccvv");
+    COLUMNS = Collections.unmodifiableMap(columns);
+  }
+
+  private static final String SELECT_PATCHABLE =
+      "select " + String.join(", ", COLUMNS.values())
+      + " from Taco_Order where id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DataVersions versions;
+
+  public JdbcOrderPatcher(JdbcTemplate jdbcTemplate, DataVersions versions) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.versions = versions;
+  }
+
+  /**
+   * The properties a patch may set.
+   */
+  public static Set<String> patchable() {
+    return COLUMNS.keySet();
+  }
+
+  /**
+   * The order's current tag.
+   *
+   * @throws EmptyResultDataAccessException if there's no such order
+   */
+  public String tag(long orderId) {
+    return tag(orderId, current(orderId));
+  }
+
+  /**
+   * Sets each property in {@code changes} to its value, {@code null}
+   * included. If {@code expectedTag} isn't {@code null}, the order must
+   * still be at that tag.
+   *
+   * @return the order's tag after the patch
+   * @throws EmptyResultDataAccessException if there's no such order
+   * @throws OptimisticLockingFailureException if the order isn't at
+   *         the expected tag
+   */
+  public String patch(long orderId, Map<String, String> changes,
+      String expectedTag) {
+    for (String property : changes.keySet()) {
+      if (!COLUMNS.containsKey(property)) {
+        throw new IllegalArgumentException(
+            "Not a patchable property: " + property);
+      }
+    }
+
+    StringBuilder sql = new StringBuilder("update Taco_Order set ");
+    List<Object> args = new ArrayList<>();
+    String separator = "";
+    for (Map.Entry<String, String> change : changes.entrySet()) {
+      sql.append(separator)
+          .append(COLUMNS.get(change.getKey())).append(" = ?");
+      args.add(change.getValue());
+      separator = ", ";
+    }
+    sql.append(" where id = ?");
+    args.add(orderId);
+
+    if (expectedTag == null) {
+      if (!changes.isEmpty()) {
+        if (jdbcTemplate.update(sql.toString(), args.toArray()) == 0) {
+          throw new EmptyResultDataAccessException(1);
+        }
+        versions.changed(TacoOrder.class);
+      }
+      return tag(orderId);
+    }
+
+    Map<String, String> current = current(orderId);
+    if (!tag(orderId, current).equals(expectedTag)) {
+      throw new OptimisticLockingFailureException(
+          "Order " + orderId + " has changed");
+    }
+    Map<String, String> patched = new LinkedHashMap<>(current);
+    patched.putAll(changes);
+    if (changes.isEmpty() || patched.equals(current)) {
+      return expectedTag;
+    }
+    for (Map.Entry<String, String> column : current.entrySet()) {
+      sql.append(" and ").append(COLUMNS.get(column.getKey()))
+          .append(" is not distinct from ?");
+      args.add(column.getValue());
+    }
+    if (jdbcTemplate.update(sql.toString(), args.toArray()) == 0) {
+      throw new OptimisticLockingFailureException(
+          "Order " + orderId + " has changed");
+    }
+    versions.changed(TacoOrder.class);
+    return tag(orderId, patched);
+  }
+
+  private Map<String, String> current(long orderId) {
+    List<Map<String, String>> rows = jdbcTemplate.query(SELECT_PATCHABLE,
+        (rs, rowNum) -> {
+          Map<String, String> row = new LinkedHashMap<>();
+          int column = 1;
+          for (String property : COLUMNS.keySet()) {
+            row.put(property, rs.getString(column++));
+          }
+          return row;
+        }, orderId);
+    if (rows.isEmpty()) {
+      throw new EmptyResultDataAccessException(1);
+    }
+    return rows.get(0);
+  }
+
+  private static String tag(long orderId, Map<String, String> values) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (String value : values.values()) {
+        // Length-prefixed so that no two rows hash the same input.
+        if (value == null) {
+          digest.update((byte) 0);
+        } else {
+          byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+          digest.update((byte) 1);
+          digest.update(Integer.toString(bytes.length)
+              .getBytes(StandardCharsets.US_ASCII));
+          digest.update((byte) ':');
+          digest.update(bytes);
+        }
+      }
+      return "order-" + orderId + "-"
+          + HexFormat.of().formatHex(digest.digest(), 0, 8);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
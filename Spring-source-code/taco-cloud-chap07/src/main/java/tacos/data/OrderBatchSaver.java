@@ -0,0 +1,83 @@
+package tacos.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import tacos.TacoOrder;
+
+/**
+ * Saves a batch of orders in a single transaction.
+ *
+ * {@link JdbcBatchingConfig} has Hibernate group the inserts into JDBC
+ * batches, so a batch of orders costs a few round trips per table
+ * rather than one per row. If the transaction fails, each order is saved
+ * again in a transaction of its own, so that a bad order fails only
+ * itself.
+ */
+@Slf4j
+@Component
+public class OrderBatchSaver {
+
+  private final OrderRepository orderRepo;
+  private final TransactionTemplate tx;
+
+  public OrderBatchSaver(OrderRepository orderRepo,
+      PlatformTransactionManager txManager) {
+    this.orderRepo = orderRepo;
+    this.tx = new TransactionTemplate(txManager);
+  }
+
+  /**
+   * Saves the orders in a single transaction, assigning their ids. If
+   * it fails, none of them are saved, but the ids handed out before the
+   * rollback are left on them.
+   */
+  public void saveBatch(List<TacoOrder> orders) {
+    tx.executeWithoutResult(status -> orderRepo.saveAll(orders));
+  }
+
+  /**
+   * Saves the orders, assigning their ids.
+   *
+   * @return the exception each order that couldn't be saved failed
+   *         with, keyed by its index in {@code orders}
+   */
+  public Map<Integer, RuntimeException> saveAll(List<TacoOrder> orders) {
+    try {
+      saveBatch(orders);
+      return Collections.emptyMap();
+    } catch (RuntimeException e) {
+      log.warn("Failed to save a batch of {} orders, saving them one by one",
+          orders.size(), e);
+    }
+
+    Map<Integer, RuntimeException> failures = new LinkedHashMap<>();
+    for (int i = 0; i < orders.size(); i++) {
+      TacoOrder order = orders.get(i);
+      clearIds(order);
+      try {
+        tx.executeWithoutResult(status -> orderRepo.save(order));
+      } catch (RuntimeException e) {
+        clearIds(order);
+        failures.put(i, e);
+      }
+    }
+    return failures;
+  }
+
+  // Ids handed out by a rolled-back transaction were never saved. The
+  // tacos' ids must go too: persisting an order cascades to its tacos,
+  // and a taco that still has an id is taken for a detached entity.
+  private static void clearIds(TacoOrder order) {
+    order.setId(null);
+    order.getTacos().forEach(taco -> taco.setId(null));
+  }
+
+}
@@ -0,0 +1,62 @@
+package tacos.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Journaled orders that the write-behind writer gave up on: ones the
+ * database rejects outright, such as a delivery name too long for its
+ * column, and records that no longer decode.
+ *
+ * Each is appended to {@code dead-letters.ndjson}, next to the journal,
+ * as one JSON line holding its journal sequence, the time, the error
+ * and the journal payload, base64-encoded, so that it can be fixed and
+ * resubmitted by hand.
+ */
+class OrderDeadLetters {
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+  private final boolean fsync;
+
+  OrderDeadLetters(Path dir, ObjectMapper objectMapper, boolean fsync)
+      throws IOException {
+    Files.createDirectories(dir);
+    this.file = dir.resolve("dead-letters.ndjson");
+    this.objectMapper = objectMapper;
+    this.fsync = fsync;
+  }
+
+  synchronized void add(long sequence, byte[] payload, Exception cause)
+      throws IOException {
+    Map<String, Object> letter = new LinkedHashMap<>();
+    letter.put("sequence", sequence);
+    letter.put("failedAt", Instant.now().toString());
+    letter.put("error", String.valueOf(cause));
+    letter.put("payload", payload);
+    byte[] json = objectMapper.writeValueAsBytes(letter);
+    ByteBuffer line = ByteBuffer.allocate(json.length + 1)
+        .put(json).put((byte) '\n').flip();
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND)) {
+      while (line.hasRemaining()) {
+        channel.write(line);
+      }
+      // The journal record is checkpointed away once this returns.
+      if (fsync) {
+        channel.force(false);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,193 @@
+package tacos.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of accepted orders that haven't reached the database
+ * yet, plus a checkpoint recording the highest sequence number that
+ * has.
+ *
+ * Each record is framed as {@code length, sequence, payload, crc32}. A
+ * record cut short by a crash fails its length or checksum check and
+ * is truncated away when the journal is reopened. Once everything in
+ * the log is checkpointed the log is emptied, so it only ever holds
+ * the current backlog.
+ */
+@Slf4j
+class OrderJournal implements Closeable {
+
+  private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+  private static final int TRAILER_BYTES = Integer.BYTES;
+
+  private final FileChannel channel;
+  private final Path checkpointFile;
+  private final boolean fsync;
+
+  private final Object syncLock = new Object();
+  private volatile long syncedSequence;
+
+  private final List<Entry> recovered;
+  private long lastSequence;
+  private long checkpoint;
+
+  OrderJournal(Path dir, boolean fsync) throws IOException {
+    Files.createDirectories(dir);
+    this.checkpointFile = dir.resolve("checkpoint");
+    this.fsync = fsync;
+    this.checkpoint = Files.exists(checkpointFile)
+        ? ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong()
+        : 0;
+    this.lastSequence = checkpoint;
+    this.channel = FileChannel.open(dir.resolve("orders.journal"),
+        StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.recovered = Collections.unmodifiableList(scan());
+    this.syncedSequence = lastSequence;
+  }
+
+  /**
+   * Records that were appended but not checkpointed before the journal
+   * was last closed, in sequence order.
+   */
+  List<Entry> recovered() {
+    return recovered;
+  }
+
+  synchronized long lastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * Appends a record and returns its sequence number. The record is
+   * only durable once {@link #sync(long)} has returned for it.
+   */
+  synchronized long append(byte[] payload) throws IOException {
+    long sequence = lastSequence + 1;
+    ByteBuffer record = ByteBuffer.allocate(
+        HEADER_BYTES + payload.length + TRAILER_BYTES);
+    record.putInt(payload.length)
+        .putLong(sequence)
+        .put(payload)
+        .putInt(checksum(sequence, payload))
+        .flip();
+    while (record.hasRemaining()) {
+      channel.write(record);
+    }
+    lastSequence = sequence;
+    return sequence;
+  }
+
+  /**
+   * Forces records up to {@code sequence} to disk, if the journal was
+   * opened with fsync. Callers arriving while a force is in progress
+   * wait for it and then share a single force between them, so
+   * concurrent appends cost far fewer than one fsync each.
+   */
+  void sync(long sequence) throws IOException {
+    if (!fsync || sequence <= syncedSequence) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (sequence <= syncedSequence) {
+        return;
+      }
+      long target = lastSequence();
+      channel.force(false);
+      syncedSequence = target;
+    }
+  }
+
+  /**
+   * Marks every record up to and including {@code sequence} as written
+   * to the database.
+   */
+  synchronized void checkpoint(long sequence) throws IOException {
+    if (sequence <= checkpoint) {
+      return;
+    }
+    Path tmp = checkpointFile.resolveSibling("checkpoint.tmp");
+    Files.write(tmp, ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+    Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    checkpoint = sequence;
+    if (checkpoint == lastSequence) {
+      channel.truncate(0);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private List<Entry> scan() throws IOException {
+    List<Entry> pending = new ArrayList<>();
+    long size = channel.size();
+    long position = 0;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    while (position + HEADER_BYTES + TRAILER_BYTES <= size) {
+      header.clear();
+      channel.read(header, position);
+      header.flip();
+      int length = header.getInt();
+      long sequence = header.getLong();
+      if (length < 0
+          || position + HEADER_BYTES + length + TRAILER_BYTES > size) {
+        break;
+      }
+      ByteBuffer body = ByteBuffer.allocate(length + TRAILER_BYTES);
+      channel.read(body, position + HEADER_BYTES);
+      body.flip();
+      byte[] payload = new byte[length];
+      body.get(payload);
+      if (body.getInt() != checksum(sequence, payload)) {
+        break;
+      }
+      if (sequence > checkpoint) {
+        pending.add(new Entry(sequence, payload));
+      }
+      lastSequence = Math.max(lastSequence, sequence);
+      position += HEADER_BYTES + length + TRAILER_BYTES;
+    }
+    if (position < size) {
+      log.warn("Discarding {} bytes of incomplete order journal",
+          size - position);
+      channel.truncate(position);
+    }
+    channel.position(position);
+    return pending;
+  }
+
+  private static int checksum(long sequence, byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  static final class Entry {
+
+    final long sequence;
+    final byte[] payload;
+
+    Entry(long sequence, byte[] payload) {
+      this.sequence = sequence;
+      this.payload = payload;
+    }
+
+  }
+
+}
@@ -0,0 +1,128 @@
+package tacos.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import tacos.TacoOrder;
+
+/**
+ * Turns orders into journal payloads and back.
+ *
+ * The journal is a plain local file, so a payload never holds the
+ * order's CVV, and holds its card number either encrypted with the
+ * {@code journal-key} (AES-GCM) or, without a key, masked down to its
+ * last four digits. An order saved from a masked payload is saved with
+ * the masked number.
+ */
+class OrderJournalCodec {
+
+  private static final String CC_NUMBER = "ccNumber";
+  private static final String CC_CVV = "ccCVV";
+  private static final String ENCRYPTED = "aes-gcm:";
+
+  private static final int IV_BYTES = 12;
+  private static final int TAG_BITS = 128;
+
+  private final ObjectMapper objectMapper;
+  private final SecretKey key;
+  private final SecureRandom random = new SecureRandom();
+
+  /**
+   * @param base64Key an AES key of 16, 24 or 32 bytes, base64-encoded,
+   *        or {@code null} to mask card numbers instead
+   */
+  OrderJournalCodec(ObjectMapper objectMapper, String base64Key) {
+    this.objectMapper = objectMapper;
+    if (base64Key == null || base64Key.isBlank()) {
+      this.key = null;
+    } else {
+      byte[] bytes = Base64.getDecoder().decode(base64Key.trim());
+      if (bytes.length != 16 && bytes.length != 24 && bytes.length != 32) {
+        throw new IllegalArgumentException(
+            "The journal key must be 16, 24 or 32 bytes");
+      }
+      this.key = new SecretKeySpec(bytes, "AES");
+    }
+  }
+
+  byte[] encode(TacoOrder order) throws IOException {
+    ObjectNode json = objectMapper.valueToTree(order);
+    json.remove(CC_CVV);
+    JsonNode number = json.get(CC_NUMBER);
+    if (number != null && number.isTextual()) {
+      json.put(CC_NUMBER, key != null
+          ? ENCRYPTED + encrypt(number.asText())
+          : mask(number.asText()));
+    }
+    return objectMapper.writeValueAsBytes(json);
+  }
+
+  /**
+   * @throws IOException if the payload isn't an order, or holds a card
+   *         number that can't be decrypted with this codec's key
+   */
+  TacoOrder decode(byte[] payload) throws IOException {
+    JsonNode tree = objectMapper.readTree(payload);
+    if (!(tree instanceof ObjectNode)) {
+      throw new IOException("Not a journaled order");
+    }
+    ObjectNode json = (ObjectNode) tree;
+    JsonNode number = json.get(CC_NUMBER);
+    if (number != null && number.isTextual()
+        && number.asText().startsWith(ENCRYPTED)) {
+      json.put(CC_NUMBER,
+          decrypt(number.asText().substring(ENCRYPTED.length())));
+    }
+    return objectMapper.treeToValue(json, TacoOrder.class);
+  }
+
+  private String encrypt(String number) {
+    try {
+      byte[] iv = new byte[IV_BYTES];
+      random.nextBytes(iv);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+      byte[] sealed = cipher.doFinal(number.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(ByteBuffer
+          .allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String decrypt(String encrypted) throws IOException {
+    if (key == null) {
+      throw new IOException("Card number is encrypted but no key is set");
+    }
+    try {
+      byte[] bytes = Base64.getDecoder().decode(encrypted);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.DECRYPT_MODE, key,
+          new GCMParameterSpec(TAG_BITS, bytes, 0, IV_BYTES));
+      return new String(cipher.doFinal(bytes, IV_BYTES,
+          bytes.length - IV_BYTES), StandardCharsets.UTF_8);
+    } catch (GeneralSecurityException | IllegalArgumentException e) {
+      throw new IOException("Can't decrypt card number", e);
+    }
+  }
+
+  private static String mask(String number) {
+    int shown = Math.min(4, number.length());
+    return "*".repeat(number.length() - shown)
+        + number.substring(number.length() - shown);
+  }
+
+}
@@ -0,0 +1,32 @@
+package tacos.data;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import tacos.TacoOrder;
+
+/**
+ * Keyset (seek) queries over orders, newest first. Each page continues
+ * strictly after the (placedAt, id) of the last order already returned,
+ * so the cost of a page doesn't grow with how deep into the table it is.
+ */
+public interface OrderPageRepository
+         extends Repository<TacoOrder, Long> {
+
+  List<TacoOrder> findAllByOrderByPlacedAtDescIdDesc(Pageable pageable);
+
+  @Query("select o from TacoOrder o"
+      + " where o.placedAt < :placedAt"
+      + " or (o.placedAt = :placedAt and o.id < :id)"
+      + " order by o.placedAt desc, o.id desc")
+  List<TacoOrder> findPageAfter(
+          @Param("placedAt") Date placedAt,
+          @Param("id") Long id,
+          Pageable pageable);
+
+}
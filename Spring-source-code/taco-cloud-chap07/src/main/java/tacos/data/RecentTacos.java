@@ -0,0 +1,170 @@
+package tacos.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import tacos.Ingredient;
+import tacos.Taco;
+
+/**
+ * The most recently saved tacos, newest first, held in a fixed-size
+ * ring so that the recent-tacos feed never has to query for them.
+ *
+ * Adding a taco claims the next sequence number and writes it into that
+ * number's slot, overwriting the taco {@code size} places older, without
+ * taking a lock. Readers skip a slot whose sequence number isn't the one
+ * they expect: its taco has been overwritten by a newer one, or its
+ * writer hasn't finished yet and it will show up on the next read.
+ *
+ * Updating or removing a taco swaps its slot's entry for one with a
+ * new revision, keeping the sequence number, so the taco keeps its
+ * place and the version changes. The ring holds its own copies of the
+ * tacos, never the entities a session handed it, so a later change to
+ * an entity shows up here only through {@link #update(Taco)}.
+ */
+@Component
+public class RecentTacos {
+
+  private final int size;
+  private final AtomicReferenceArray<Entry> slots;
+  private final AtomicLong next = new AtomicLong();
+  private final AtomicLong revisions = new AtomicLong();
+
+  // Keeps ETags from one run from matching those of another.
+  private final long epoch = ThreadLocalRandom.current().nextLong();
+
+  public RecentTacos(RecentTacosProps props) {
+    this.size = props.getSize();
+    this.slots = new AtomicReferenceArray<>(size);
+  }
+
+  public void add(Taco taco) {
+    long sequence = next.getAndIncrement();
+    slots.set(slot(sequence), new Entry(sequence, 0, copyOf(taco, null)));
+  }
+
+  /**
+   * Replaces the copy of a taco that is still in the ring. Ingredients
+   * that were never loaded are taken to be unchanged.
+   */
+  public void update(Taco taco) {
+    replace(taco.getId(), current -> copyOf(taco, current.getIngredients()));
+  }
+
+  /**
+   * Drops a taco from the ring. Its place isn't refilled with an older
+   * taco, so the ring serves one fewer until newer ones push it out.
+   */
+  public void remove(Object id) {
+    replace(id, current -> null);
+  }
+
+  public Snapshot snapshot() {
+    long head = next.get();
+    List<Taco> tacos = new ArrayList<>(size);
+    long version = epoch;
+    for (long sequence = head - 1;
+         sequence >= 0 && sequence >= head - size; sequence--) {
+      Entry entry = slots.get(slot(sequence));
+      if (entry != null && entry.sequence == sequence) {
+        if (entry.taco != null) {
+          tacos.add(entry.taco);
+        }
+        version = 31 * (31 * version + sequence) + entry.revision;
+      }
+    }
+    return new Snapshot(Collections.unmodifiableList(tacos),
+        Long.toHexString(version));
+  }
+
+  private int slot(long sequence) {
+    return (int) (sequence % size);
+  }
+
+  private void replace(Object id, UnaryOperator<Taco> change) {
+    if (id == null) {
+      return;
+    }
+    for (int slot = 0; slot < size; slot++) {
+      Entry entry = slots.get(slot);
+      // An add or another change got there first; look again.
+      while (entry != null && entry.taco != null
+          && Objects.equals(entry.taco.getId(), id)
+          && !slots.compareAndSet(slot, entry, new Entry(entry.sequence,
+              revisions.incrementAndGet(), change.apply(entry.taco)))) {
+        entry = slots.get(slot);
+      }
+    }
+  }
+
+  private static Taco copyOf(Taco taco, List<Ingredient> previous) {
+    Taco copy = new Taco();
+    copy.setId(taco.getId());
+    copy.setName(taco.getName());
+    copy.setCreatedAt(taco.getCreatedAt() == null
+        ? null : new Date(taco.getCreatedAt().getTime()));
+    if (previous != null && !Hibernate.isInitialized(taco.getIngredients())) {
+      copy.setIngredients(previous);
+    } else {
+      List<Ingredient> ingredients = new ArrayList<>();
+      if (taco.getIngredients() != null) {
+        for (Ingredient ingredient : taco.getIngredients()) {
+          ingredients.add(new Ingredient(ingredient.getId(),
+              ingredient.getName(), ingredient.getType()));
+        }
+      }
+      copy.setIngredients(Collections.unmodifiableList(ingredients));
+    }
+    return copy;
+  }
+
+  /**
+   * Tacos newest first, with a version that changes whenever the list
+   * does, for use as an ETag.
+   */
+  public static final class Snapshot {
+
+    private final List<Taco> tacos;
+    private final String version;
+
+    Snapshot(List<Taco> tacos, String version) {
+      this.tacos = tacos;
+      this.version = version;
+    }
+
+    public List<Taco> getTacos() {
+      return tacos;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+  }
+
+  private static final class Entry {
+
+    final long sequence;
+    final long revision;
+    // Null once the taco has been removed.
+    final Taco taco;
+
+    Entry(long sequence, long revision, Taco taco) {
+      this.sequence = sequence;
+      this.revision = revision;
+      this.taco = taco;
+    }
+
+  }
+
+}
@@ -0,0 +1,116 @@
+package tacos.data;
+
+import java.util.List;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tacos.Taco;
+
+/**
+ * Fills {@link RecentTacos}: first with the newest tacos in the
+ * database, at startup, and from then on with every taco Hibernate
+ * inserts, however it came to be saved, once its transaction commits.
+ * Tacos Hibernate updates or deletes are replaced or dropped the same
+ * way.
+ *
+ * The warm-up runs before the listener is registered and before any
+ * runners or requests, so no taco is added twice.
+ */
+@Component
+public class RecentTacosFeeder implements PostCommitInsertEventListener,
+    PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+    SmartInitializingSingleton {
+
+  private final RecentTacos recentTacos;
+  private final RecentTacosProps props;
+  private final TacoRepository tacoRepo;
+  private final EntityManagerFactory entityManagerFactory;
+  private final TransactionTemplate tx;
+
+  public RecentTacosFeeder(RecentTacos recentTacos, RecentTacosProps props,
+      TacoRepository tacoRepo, EntityManagerFactory entityManagerFactory,
+      PlatformTransactionManager txManager) {
+    this.recentTacos = recentTacos;
+    this.props = props;
+    this.tacoRepo = tacoRepo;
+    this.entityManagerFactory = entityManagerFactory;
+    this.tx = new TransactionTemplate(txManager);
+    this.tx.setReadOnly(true);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    tx.executeWithoutResult(status -> {
+      List<Taco> newest = tacoRepo.findAll(PageRequest.of(0, props.getSize(),
+          Sort.by("createdAt").descending())).getContent();
+      // Copied, ingredients and all, while the session is open.
+      for (int i = newest.size() - 1; i >= 0; i--) {
+        recentTacos.add(newest.get(i));
+      }
+    });
+
+    EventListenerRegistry registry = entityManagerFactory
+        .unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+    registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (event.getEntity() instanceof Taco) {
+      recentTacos.add((Taco) event.getEntity());
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    if (event.getEntity() instanceof Taco) {
+      recentTacos.update((Taco) event.getEntity());
+    }
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    if (event.getEntity() instanceof Taco) {
+      recentTacos.remove(event.getId());
+    }
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent event) {
+  }
+
+  @Override
+  public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+  }
+
+  @Override
+  public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return persister.getMappedClass() == Taco.class;
+  }
+
+}
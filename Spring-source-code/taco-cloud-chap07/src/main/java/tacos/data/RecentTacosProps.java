@@ -0,0 +1,22 @@
+package tacos.data;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.tacos.recent")
+@Data
+@Validated
+public class RecentTacosProps {
+
+  @Min(value=1, message="must be between 1 and 100")
+  @Max(value=100, message="must be between 1 and 100")
+  private int size = 12;
+
+}
@@ -0,0 +1,338 @@
+package tacos.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.validation.ConstraintViolationException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import tacos.TacoOrder;
+
+/**
+ * Accepts orders by appending them to a local {@link OrderJournal} and
+ * writes them to the database later, in batches, from a fixed pool of
+ * worker threads.
+ *
+ * The backlog is bounded by {@code taco.orders.write-behind.capacity};
+ * once it's full, {@link #accept(TacoOrder)} waits up to the accept
+ * timeout and then refuses the order. A batch that fails to save is
+ * retried with backoff; after {@code batch-attempts} failures its
+ * orders are saved one at a time instead, and any the database rejects
+ * outright, or whose journal record no longer decodes, are moved to
+ * {@link OrderDeadLetters} so that they can't hold up the rest of the
+ * backlog. Orders failing for any other reason, such as the database
+ * being down, are retried until they're saved or the writer stops, and
+ * whatever hasn't been saved by then is replayed from the journal on
+ * the next start. Orders are delivered at least once: a crash between
+ * saving a batch and checkpointing it will save that batch again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix="taco.orders.write-behind",
+                       name="enabled", havingValue="true")
+public class WriteBehindOrderWriter implements SmartLifecycle {
+
+  private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+  private final OrderBatchSaver batchSaver;
+  private final ObjectMapper objectMapper;
+  private final OrderJournalCodec codec;
+  private final WriteBehindProps props;
+
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final Semaphore capacity;
+
+  // Journaled but not yet saved; the lowest of these bounds the
+  // checkpoint. Guarded by this, along with appends to the journal.
+  private final NavigableSet<Long> unsaved = new TreeSet<>();
+
+  private OrderJournal journal;
+  private OrderDeadLetters deadLetters;
+  private ExecutorService workers;
+  private volatile boolean running;
+
+  public WriteBehindOrderWriter(OrderBatchSaver batchSaver,
+      ObjectMapper objectMapper, WriteBehindProps props) {
+    this.batchSaver = batchSaver;
+    this.objectMapper = objectMapper;
+    this.codec = new OrderJournalCodec(objectMapper, props.getJournalKey());
+    this.props = props;
+    this.capacity = new Semaphore(props.getCapacity());
+  }
+
+  /**
+   * Journals the order and queues it for the database. The order has
+   * been made durable, if fsync is on, by the time this returns. Its
+   * CVV isn't journaled, so it's saved without one; see
+   * {@link OrderJournalCodec} for how its card number is kept.
+   *
+   * @return the order's sequence number in the journal
+   * @throws RejectedExecutionException if the backlog stays full for
+   *         the whole accept timeout, or the writer isn't running
+   */
+  public long accept(TacoOrder order) {
+    if (!running) {
+      throw new RejectedExecutionException("Order writer is not running");
+    }
+    try {
+      if (!capacity.tryAcquire(props.getAcceptTimeout().toNanos(),
+          TimeUnit.NANOSECONDS)) {
+        throw new RejectedExecutionException("Order backlog is full");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException(e);
+    }
+
+    byte[] payload;
+    long sequence;
+    try {
+      payload = codec.encode(order);
+      synchronized (this) {
+        sequence = journal.append(payload);
+        unsaved.add(sequence);
+      }
+    } catch (IOException e) {
+      capacity.release();
+      throw new UncheckedIOException(e);
+    }
+
+    try {
+      journal.sync(sequence);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      // Once appended, the order would be replayed from the journal
+      // anyway, so it's queued even if forcing it to disk failed.
+      queue.add(new Pending(sequence, payload));
+    }
+    return sequence;
+  }
+
+  /**
+   * Orders accepted or replayed but not yet saved.
+   */
+  public int backlog() {
+    return props.getCapacity() - capacity.availablePermits();
+  }
+
+  @Override
+  public void start() {
+    try {
+      journal = new OrderJournal(
+          Paths.get(props.getJournalDir()), props.isFsync());
+      deadLetters = new OrderDeadLetters(Paths.get(props.getJournalDir()),
+          objectMapper, props.isFsync());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    List<OrderJournal.Entry> recovered = journal.recovered();
+    synchronized (this) {
+      recovered.forEach(entry -> unsaved.add(entry.sequence));
+    }
+    running = true;
+    workers = Executors.newFixedThreadPool(props.getWorkers(),
+        new CustomizableThreadFactory("order-writer-"));
+    for (int i = 0; i < props.getWorkers(); i++) {
+      workers.execute(this::drain);
+    }
+
+    if (!recovered.isEmpty()) {
+      log.info("Replaying {} journaled orders", recovered.size());
+    }
+    for (OrderJournal.Entry entry : recovered) {
+      capacity.acquireUninterruptibly();
+      queue.add(new Pending(entry.sequence, entry.payload));
+    }
+  }
+
+  /**
+   * Stops accepting orders and gives the workers up to the shutdown
+   * timeout to save what's queued. Anything left stays in the journal.
+   */
+  @Override
+  public void stop() {
+    running = false;
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(
+          props.getShutdownTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+        workers.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      workers.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    try {
+      journal.close();
+    } catch (IOException e) {
+      log.warn("Failed to close order journal", e);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // Start before the web server takes requests and stop after it has
+  // stopped taking them. Boot 3.2 starts and stops the web server in
+  // phase DEFAULT_PHASE - 2048 (Boot 2.x in Integer.MAX_VALUE - 1), and
+  // beans that share a phase aren't ordered, so this stays well below.
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void drain() {
+    int batchSize = props.getBatchSize();
+    List<Pending> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        save(batch);
+        saved(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  // Returns once every order in the batch is either saved or
+  // dead-lettered.
+  private void save(List<Pending> batch) throws InterruptedException {
+    List<Pending> remaining = batch;
+    int attempts = 0;
+    long backoff = 100;
+    while (true) {
+      // Orders are rebuilt from the journal payload on every attempt,
+      // so a rolled-back attempt can't leave ids behind on them.
+      List<Pending> decoded = new ArrayList<>(remaining.size());
+      List<TacoOrder> orders = new ArrayList<>(remaining.size());
+      List<Pending> retry = new ArrayList<>();
+      for (Pending pending : remaining) {
+        try {
+          orders.add(codec.decode(pending.payload));
+          decoded.add(pending);
+        } catch (IOException | RuntimeException e) {
+          if (!deadLetter(pending, e)) {
+            retry.add(pending);
+          }
+        }
+      }
+
+      if (!orders.isEmpty()) {
+        attempts++;
+        if (attempts <= props.getBatchAttempts()) {
+          try {
+            batchSaver.saveBatch(orders);
+          } catch (RuntimeException e) {
+            log.warn("Failed to save a batch of {} orders (attempt {})",
+                orders.size(), attempts, e);
+            retry.addAll(decoded);
+          }
+        } else {
+          Map<Integer, RuntimeException> failures =
+              batchSaver.saveAll(orders);
+          failures.forEach((index, e) -> {
+            Pending pending = decoded.get(index);
+            if (!rejected(e) || !deadLetter(pending, e)) {
+              retry.add(pending);
+            }
+          });
+        }
+      }
+
+      if (retry.isEmpty()) {
+        return;
+      }
+      log.warn("{} orders not saved yet, retrying in {} ms",
+          retry.size(), backoff);
+      Thread.sleep(backoff);
+      backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+      remaining = retry;
+    }
+  }
+
+  // Whether the database refused the order itself, as opposed to
+  // failing to take any orders at all.
+  private static boolean rejected(RuntimeException e) {
+    return (e instanceof NonTransientDataAccessException
+            && !(e instanceof NonTransientDataAccessResourceException))
+        || NestedExceptionUtils.getMostSpecificCause(e)
+            instanceof ConstraintViolationException;
+  }
+
+  // An order that can't be dead-lettered is kept and retried, so that
+  // it's never checkpointed away without a copy.
+  private boolean deadLetter(Pending pending, Exception cause) {
+    try {
+      deadLetters.add(pending.sequence, pending.payload, cause);
+      log.error("Gave up on journaled order {}, moved to dead letters",
+          pending.sequence, cause);
+      return true;
+    } catch (IOException e) {
+      log.error("Failed to dead-letter journaled order {}",
+          pending.sequence, e);
+      return false;
+    }
+  }
+
+  private void saved(List<Pending> batch) {
+    synchronized (this) {
+      batch.forEach(pending -> unsaved.remove(pending.sequence));
+      long checkpoint = unsaved.isEmpty()
+          ? journal.lastSequence()
+          : unsaved.first() - 1;
+      try {
+        journal.checkpoint(checkpoint);
+      } catch (IOException e) {
+        log.warn("Failed to checkpoint order journal at {}", checkpoint, e);
+      }
+    }
+    capacity.release(batch.size());
+  }
+
+  private static final class Pending {
+
+    final long sequence;
+    final byte[] payload;
+
+    Pending(long sequence, byte[] payload) {
+      this.sequence = sequence;
+      this.payload = payload;
+    }
+
+  }
+
+}
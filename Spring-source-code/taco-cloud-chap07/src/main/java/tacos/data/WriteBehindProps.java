@@ -0,0 +1,52 @@
+package tacos.data;
+import java.time.Duration;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.orders.write-behind")
+@Data
+@Validated
+public class WriteBehindProps {
+
+  private boolean enabled = false;
+
+  @NotNull
+  private String journalDir = "order-journal";
+
+  private boolean fsync = true;
+
+  // A base64-encoded AES key, of 16, 24 or 32 bytes, that card numbers
+  // are encrypted with in the journal. Without one, they're journaled,
+  // and then saved, with all but their last four digits masked.
+  private String journalKey;
+
+  @Min(value=1, message="must be at least 1")
+  private int batchSize = 100;
+
+  // Attempts at saving a batch whole before its orders are saved one
+  // at a time, and any the database rejects are dead-lettered.
+  @Min(value=1, message="must be at least 1")
+  private int batchAttempts = 3;
+
+  @Min(value=1, message="must be at least 1")
+  private int workers = 2;
+
+  @Min(value=1, message="must be at least 1")
+  private int capacity = 10_000;
+
+  @NotNull
+  private Duration acceptTimeout = Duration.ofMillis(100);
+
+  @NotNull
+  private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+}
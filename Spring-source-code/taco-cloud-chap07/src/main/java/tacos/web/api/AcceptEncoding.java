@@ -0,0 +1,55 @@
+package tacos.web.api;
+
+import java.util.Locale;
+
+/**
+ * Reads an {@code Accept-Encoding} request header, qvalues included,
+ * as RFC 9110 defines it.
+ */
+final class AcceptEncoding {
+
+  private AcceptEncoding() {
+  }
+
+  /**
+   * Whether a response may be gzipped for a request with this header.
+   * An explicit {@code gzip} (or {@code x-gzip}) entry decides; failing
+   * that, a {@code *} entry does. Either way, {@code q=0} refuses it.
+   */
+  static boolean allowsGzip(String header) {
+    if (header == null) {
+      return false;
+    }
+    Double gzip = null;
+    Double any = null;
+    for (String entry : header.split(",")) {
+      String[] parts = entry.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      double q = qvalue(parts);
+      if (coding.equals("gzip") || coding.equals("x-gzip")) {
+        gzip = gzip == null ? q : Math.max(gzip, q);
+      } else if (coding.equals("*")) {
+        any = q;
+      }
+    }
+    Double q = gzip != null ? gzip : any;
+    return q != null && q > 0;
+  }
+
+  // A malformed qvalue counts as 0, so that it never turns gzip on.
+  private static double qvalue(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() > 2
+          && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+}
@@ -1,29 +1,110 @@
 package tacos.web.api;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import tacos.Ingredient;
+import tacos.data.DataVersions;
 import tacos.data.IngredientRepository;
 
+/**
+ * Serves the ingredient list as JSON encoded once per catalog version.
+ *
+ * The first request after an ingredient changes reads the list, maps it
+ * to JSON and gzips it; every other request writes those same bytes,
+ * gzipped if the client accepts it, without mapping anything.
+ */
 @RestController
 @RequestMapping(path="/api/ingredients", produces="application/json")
 @CrossOrigin(origins="http://localhost:8080")
 public class IngredientController {
 
   private IngredientRepository repo;
+  private DataVersions versions;
+  private ObjectMapper objectMapper;
+
+  private final AtomicReference<Encoded> encoded = new AtomicReference<>();
 
   @Autowired
-  public IngredientController(IngredientRepository repo) {
+  public IngredientController(IngredientRepository repo,
+          DataVersions versions, ObjectMapper objectMapper) {
     this.repo = repo;
+    this.versions = versions;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping
-  public Iterable<Ingredient> allIngredients() {
-    return repo.findAll();
+  public ResponseEntity<byte[]> allIngredients(
+          @RequestHeader(name=HttpHeaders.ACCEPT_ENCODING, required=false)
+          String acceptEncoding,
+          WebRequest request) {
+    DataVersions.Version version = versions.list(Ingredient.class);
+    boolean gzip = AcceptEncoding.allowsGzip(acceptEncoding);
+    // Each encoding is a different representation, so needs its own tag.
+    String etag = "ingredients-" + version.getTag() + (gzip ? "-gzip" : "");
+    if (request.checkNotModified(etag, version.getLastModified())) {
+      return null;
+    }
+
+    Encoded current = encoded.get();
+    if (current == null || !current.tag.equals(version.getTag())) {
+      current = encode(version.getTag());
+      encoded.set(current);
+    }
+    byte[] body = gzip ? current.gzip : current.json;
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .contentLength(body.length)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
+  }
+
+  // Two requests racing past a version change may both encode it;
+  // either result is correct for the tag.
+  private Encoded encode(String tag) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(repo.findAll());
+      ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+        gzip.write(json);
+      }
+      return new Encoded(tag, json, gzipped.toByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static final class Encoded {
+
+    final String tag;
+    final byte[] json;
+    final byte[] gzip;
+
+    Encoded(String tag, byte[] json, byte[] gzip) {
+      this.tag = tag;
+      this.json = json;
+      this.gzip = gzip;
+    }
+
   }
 
 }
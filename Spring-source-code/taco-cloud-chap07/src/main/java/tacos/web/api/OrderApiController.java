@@ -1,7 +1,28 @@
 package tacos.web.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +31,27 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import tacos.TacoOrder;
+import tacos.data.DataVersions;
+import tacos.data.JdbcOrderPatcher;
+import tacos.data.OrderBatchSaver;
+import tacos.data.OrderPageRepository;
 import tacos.data.OrderRepository;
+import tacos.data.WriteBehindOrderWriter;
 
 @RestController
 @RequestMapping(path="/api/orders",
@@ -24,20 +60,198 @@ import tacos.data.OrderRepository;
 public class OrderApiController {
 
   private OrderRepository repo;
+  private OrderPageRepository pageRepo;
+  private OrderApiProps props;
+  private WriteBehindOrderWriter writeBehind;
+  private DataVersions versions;
+  private JdbcOrderPatcher patcher;
+  private OrderBatchSaver batchSaver;
+  private Validator validator;
+  private ObjectMapper objectMapper;
 
-  public OrderApiController(OrderRepository repo) {
+  public OrderApiController(OrderRepository repo,
+          OrderPageRepository pageRepo, OrderApiProps props,
+          ObjectProvider<WriteBehindOrderWriter> writeBehind,
+          DataVersions versions, JdbcOrderPatcher patcher,
+          OrderBatchSaver batchSaver, Validator validator,
+          ObjectMapper objectMapper) {
     this.repo = repo;
+    this.pageRepo = pageRepo;
+    this.props = props;
+    this.writeBehind = writeBehind.getIfAvailable();
+    this.versions = versions;
+    this.patcher = patcher;
+    this.batchSaver = batchSaver;
+    this.validator = validator;
+    this.objectMapper = objectMapper;
   }
 
+  /**
+   * Returns one page of orders, newest first. When more orders follow,
+   * the response carries a {@code Link: <...>; rel="next"} header whose
+   * URL repeats the request with an {@code after} cursor. Until an
+   * order is saved or deleted, a client that sends back the ETag gets
+   * a 304 without a query.
+   */
   @GetMapping(produces="application/json")
-  public Iterable<TacoOrder> allOrders() {
-    return repo.findAll();
+  public ResponseEntity<List<TacoOrder>> allOrders(
+          @RequestParam(name="after", required=false) String after,
+          WebRequest request) {
+    DataVersions.Version version = versions.list(TacoOrder.class);
+    if (request.checkNotModified(
+        "orders-" + version.getTag(), version.getLastModified())) {
+      return null;
+    }
+    int pageSize = props.getPageSize();
+    // One extra row tells us whether there's a next page without
+    // running a count query.
+    Pageable page = PageRequest.ofSize(pageSize + 1);
+    List<TacoOrder> orders;
+    if (after == null) {
+      orders = pageRepo.findAllByOrderByPlacedAtDescIdDesc(page);
+    } else {
+      OrderCursor cursor = decodeCursor(after);
+      orders = pageRepo.findPageAfter(
+          cursor.getPlacedAt(), cursor.getId(), page);
+    }
+    if (orders.size() <= pageSize) {
+      return ResponseEntity.ok(orders);
+    }
+
+    List<TacoOrder> content = orders.subList(0, pageSize);
+    String next = ServletUriComponentsBuilder.fromCurrentRequest()
+        .replaceQueryParam("after",
+            OrderCursor.of(content.get(pageSize - 1)).encode())
+        .toUriString();
+    return ResponseEntity.ok()
+        .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+        .body(content);
   }
 
+  private OrderCursor decodeCursor(String after) {
+    try {
+      return OrderCursor.decode(after);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+    }
+  }
+
+  /**
+   * Saves the order and answers 201, or, with write-behind enabled,
+   * journals it and answers 202 before it reaches the database. A full
+   * write-behind backlog answers 503.
+   */
   @PostMapping(consumes="application/json")
-  @ResponseStatus(HttpStatus.CREATED)
-  public TacoOrder postOrder(@RequestBody TacoOrder order) {
-    return repo.save(order);
+  public ResponseEntity<TacoOrder> postOrder(
+          @Valid @RequestBody TacoOrder order) {
+    if (writeBehind == null) {
+      return ResponseEntity.status(HttpStatus.CREATED)
+          .body(repo.save(order));
+    }
+    try {
+      writeBehind.accept(order);
+    } catch (RejectedExecutionException e) {
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+    return ResponseEntity.accepted().body(order);
+  }
+
+  /**
+   * Validates up to {@code taco.api.orders.max-batch-orders} orders in
+   * parallel and saves the valid ones together in one transaction.
+   * Answers 201 if every order was saved and 207 otherwise, with one
+   * result per order, in request order, either way. A batch with more
+   * orders is refused with 400 as soon as one too many has been read.
+   */
+  @PostMapping(path="/batch", consumes="application/json")
+  public ResponseEntity<List<OrderBatchResult>> postOrders(
+          HttpServletRequest request) throws IOException {
+    List<TacoOrder> orders = readBatch(request.getInputStream());
+    List<Set<ConstraintViolation<TacoOrder>>> violations =
+        orders.parallelStream().map(validator::validate).toList();
+
+    OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+    List<TacoOrder> valid = new ArrayList<>(orders.size());
+    List<Integer> validIndexes = new ArrayList<>(orders.size());
+    for (int i = 0; i < orders.size(); i++) {
+      if (violations.get(i).isEmpty()) {
+        valid.add(orders.get(i));
+        validIndexes.add(i);
+      } else {
+        results[i] = OrderBatchResult.invalid(i, violations.get(i).stream()
+            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+            .sorted()
+            .toList());
+      }
+    }
+
+    Map<Integer, RuntimeException> failures = batchSaver.saveAll(valid);
+    for (int v = 0; v < valid.size(); v++) {
+      int i = validIndexes.get(v);
+      results[i] = failures.containsKey(v)
+          ? OrderBatchResult.failed(i)
+          : OrderBatchResult.created(i, valid.get(v).getId());
+    }
+    HttpStatus status = valid.size() == orders.size() && failures.isEmpty()
+        ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+    return ResponseEntity.status(status).body(Arrays.asList(results));
+  }
+
+  // Reads the batch an order at a time and gives up at the first order
+  // past the limit, so an oversized batch is never held in memory.
+  private List<TacoOrder> readBatch(InputStream body) throws IOException {
+    int maxOrders = props.getMaxBatchOrders();
+    ResponseStatusException badSize = new ResponseStatusException(
+        HttpStatus.BAD_REQUEST, "A batch holds 1 to " + maxOrders + " orders");
+    List<TacoOrder> orders = new ArrayList<>();
+    try (JsonParser parser = objectMapper.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST, "A batch is a JSON array of orders");
+      }
+      for (JsonToken token = parser.nextToken();
+           token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new ResponseStatusException(
+              HttpStatus.BAD_REQUEST, "A batch is a JSON array of orders");
+        }
+        if (orders.size() == maxOrders) {
+          throw badSize;
+        }
+        orders.add(objectMapper.readValue(parser, TacoOrder.class));
+      }
+    } catch (JsonProcessingException e) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Can't read the batch", e);
+    }
+    if (orders.isEmpty()) {
+      throw badSize;
+    }
+    return orders;
+  }
+
+  /**
+   * Returns the order with its tag as the ETag, for a later PATCH to
+   * send back in {@code If-Match}. The tag covers the order's delivery
+   * and payment details, the ones a PATCH can change.
+   */
+  @GetMapping("/{orderId}")
+  public ResponseEntity<TacoOrder> orderById(
+          @PathVariable("orderId") Long orderId) {
+    // Tagged before reading, so a patch racing with the read can only
+    // make the client's next If-Match fail, never succeed against
+    // details it hasn't seen.
+    String tag;
+    try {
+      tag = patcher.tag(orderId);
+    } catch (EmptyResultDataAccessException e) {
+      return ResponseEntity.notFound().build();
+    }
+    return repo.findById(orderId)
+        .map(order -> ResponseEntity.ok().eTag(tag).body(order))
+        .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
   @PutMapping(path="/{orderId}", consumes="application/json")
@@ -48,36 +262,68 @@ public class OrderApiController {
     return repo.save(order);
   }
 
-  @PatchMapping(path="/{orderId}", consumes="application/json")
-  public TacoOrder patchOrder(@PathVariable("orderId") Long orderId,
-                          @RequestBody TacoOrder patch) {
-
-    TacoOrder order = repo.findById(orderId).get();
-    if (patch.getDeliveryName() != null) {
-      order.setDeliveryName(patch.getDeliveryName());
-    }
-    if (patch.getDeliveryStreet() != null) {
-      order.setDeliveryStreet(patch.getDeliveryStreet());
-    }
-    if (patch.getDeliveryCity() != null) {
-      order.setDeliveryCity(patch.getDeliveryCity());
+  /**
+   * Applies a JSON merge patch to the order's delivery and payment
+   * details: a property set to null is cleared and one left out is
+   * kept. Only the order's own row is updated, never its tacos. With
+   * {@code If-Match}, the patch applies only if the order is still at
+   * that ETag, and answers 412 otherwise; {@code If-Match: *} only asks
+   * that the order exist. A missing order fails any {@code If-Match}
+   * with 412, and is a 404 only without one. Answers 204 with the
+   * order's new ETag.
+   */
+  @PatchMapping(path="/{orderId}",
+                consumes={"application/merge-patch+json", "application/json"})
+  public ResponseEntity<Void> patchOrder(
+          @PathVariable("orderId") Long orderId,
+          @RequestHeader(name=HttpHeaders.IF_MATCH, required=false)
+          String ifMatch,
+          @RequestBody Map<String, Object> patch) {
+    Map<String, String> changes = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> property : patch.entrySet()) {
+      String name = property.getKey();
+      Object value = property.getValue();
+      if (!JdbcOrderPatcher.patchable().contains(name)
+          || (value != null && !(value instanceof String))) {
+        throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST, "Can't patch " + name);
+      }
+      Set<ConstraintViolation<TacoOrder>> violations =
+          validator.validateValue(TacoOrder.class, name, value);
+      if (!violations.isEmpty()) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            violations.iterator().next().getMessage());
+      }
+      changes.put(name, (String) value);
     }
-    if (patch.getDeliveryState() != null) {
-      order.setDeliveryState(patch.getDeliveryState());
-    }
-    if (patch.getDeliveryZip() != null) {
-      order.setDeliveryZip(patch.getDeliveryZip());
+
+    boolean anyTag = ifMatch != null && ifMatch.trim().equals("*");
+    String tag;
+    try {
+      tag = patcher.patch(orderId, changes,
+          anyTag ? null : unquote(ifMatch));
+    } catch (EmptyResultDataAccessException e) {
+      throw new ResponseStatusException(ifMatch != null
+          ? HttpStatus.PRECONDITION_FAILED : HttpStatus.NOT_FOUND);
+    } catch (OptimisticLockingFailureException e) {
+      throw new ResponseStatusException(
+          HttpStatus.PRECONDITION_FAILED, e.getMessage(), e);
     }
-    if (patch.getCcNumber() != null) {
-      order.setCcNumber(patch.getCcNumber());
+    return ResponseEntity.noContent().eTag(tag).build();
+  }
+
+  private static String unquote(String etag) {
+    if (etag == null) {
+      return null;
     }
-    if (patch.getCcExpiration() != null) {
-      order.setCcExpiration(patch.getCcExpiration());
+    String tag = etag.trim();
+    if (tag.startsWith("W/")) {
+      tag = tag.substring(2);
     }
-    if (patch.getCcCVV() != null) {
-      order.setCcCVV(patch.getCcCVV());
+    if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      tag = tag.substring(1, tag.length() - 1);
     }
-    return repo.save(order);
+    return tag;
   }
 
   @DeleteMapping("/{orderId}")
@@ -0,0 +1,38 @@
+package tacos.web.api;
+import java.time.Duration;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.
+                                        ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@Component
+@ConfigurationProperties(prefix="taco.api.orders")
+@Data
+@Validated
+public class OrderApiProps {
+
+  @Min(value=5, message="must be between 5 and 25")
+  @Max(value=25, message="must be between 5 and 25")
+  private int pageSize = 20;
+
+  @Min(value=1, message="must be at least 1")
+  private int exportFetchSize = 500;
+
+  // How long a full export may stream before the container cuts it
+  // off. Exporting a million orders takes minutes, not seconds. Only
+  // the export gets this timeout.
+  @NotNull
+  private Duration exportTimeout = Duration.ofMinutes(30);
+
+  @Min(value=1, message="must be between 1 and 1000")
+  @Max(value=1000, message="must be between 1 and 1000")
+  private int maxBatchOrders = 100;
+
+}
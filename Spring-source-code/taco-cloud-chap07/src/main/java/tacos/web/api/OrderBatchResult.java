@@ -0,0 +1,58 @@
+package tacos.web.api;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * What became of one order in a POST /api/orders/batch request. The
+ * status is the one the order would have got posted on its own: 201
+ * with its id, 400 with its validation errors, or 500 if it couldn't
+ * be saved.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class OrderBatchResult {
+
+  private final int index;
+  private final int status;
+  private final Long id;
+  private final List<String> errors;
+
+  private OrderBatchResult(int index, int status, Long id,
+      List<String> errors) {
+    this.index = index;
+    this.status = status;
+    this.id = id;
+    this.errors = errors;
+  }
+
+  static OrderBatchResult created(int index, Long id) {
+    return new OrderBatchResult(index, 201, id, null);
+  }
+
+  static OrderBatchResult invalid(int index, List<String> errors) {
+    return new OrderBatchResult(index, 400, null, errors);
+  }
+
+  static OrderBatchResult failed(int index) {
+    return new OrderBatchResult(index, 500, null,
+        List.of("Order could not be saved"));
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public List<String> getErrors() {
+    return errors;
+  }
+
+}
@@ -0,0 +1,59 @@
+package tacos.web.api;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Date;
+
+import tacos.TacoOrder;
+
+/**
+ * Position of an order in the (placedAt, id) ordering used to page
+ * through /api/orders. Clients only ever see it as an opaque, URL-safe
+ * token.
+ */
+final class OrderCursor {
+
+  private static final int TOKEN_BYTES = 2 * Long.BYTES;
+
+  private final long placedAt;
+  private final long id;
+
+  private OrderCursor(long placedAt, long id) {
+    this.placedAt = placedAt;
+    this.id = id;
+  }
+
+  static OrderCursor of(TacoOrder order) {
+    return new OrderCursor(order.getPlacedAt().getTime(), order.getId());
+  }
+
+  /**
+   * @throws IllegalArgumentException if the token wasn't produced by
+   *         {@link #encode()}
+   */
+  static OrderCursor decode(String token) {
+    byte[] bytes = Base64.getUrlDecoder().decode(token);
+    if (bytes.length != TOKEN_BYTES) {
+      throw new IllegalArgumentException("Malformed order cursor");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new OrderCursor(buffer.getLong(), buffer.getLong());
+  }
+
+  String encode() {
+    byte[] bytes = ByteBuffer.allocate(TOKEN_BYTES)
+        .putLong(placedAt)
+        .putLong(id)
+        .array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  Date getPlacedAt() {
+    return new Date(placedAt);
+  }
+
+  Long getId() {
+    return id;
+  }
+
+}
@@ -0,0 +1,72 @@
+package tacos.web.api;
+
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import tacos.data.JdbcOrderExporter;
+
+/**
+ * Bulk export of all orders as newline-delimited JSON, for analytics.
+ *
+ * The body is written from a database cursor on an async request
+ * thread, which the container otherwise abandons after its default
+ * async timeout (30 seconds on Tomcat), partway through a large
+ * export. The export's own task is given
+ * {@code taco.api.orders.export-timeout} instead, leaving every other
+ * async handler on the default.
+ */
+@RestController
+@RequestMapping(path="/api/orders/export",
+                produces=MediaType.APPLICATION_NDJSON_VALUE)
+@CrossOrigin(origins="http://tacocloud:8080")
+public class OrderExportController {
+
+  private JdbcOrderExporter exporter;
+  private OrderApiProps props;
+
+  public OrderExportController(JdbcOrderExporter exporter,
+          OrderApiProps props) {
+    this.exporter = exporter;
+    this.props = props;
+  }
+
+  // The task writes the body itself, so it has no result to render.
+  @GetMapping
+  public WebAsyncTask<Void> exportOrders(
+          @RequestHeader(name=HttpHeaders.ACCEPT_ENCODING, required=false)
+          String acceptEncoding,
+          HttpServletResponse response) {
+    int fetchSize = props.getExportFetchSize();
+    boolean gzip = AcceptEncoding.allowsGzip(acceptEncoding);
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+
+    return new WebAsyncTask<>(props.getExportTimeout().toMillis(), () -> {
+      OutputStream out = response.getOutputStream();
+      if (gzip) {
+        GZIPOutputStream gzipped = new GZIPOutputStream(out, 8192);
+        exporter.export(gzipped, fetchSize);
+        gzipped.finish();
+      } else {
+        exporter.export(out, fetchSize);
+      }
+      out.flush();
+      return null;
+    });
+  }
+
+}
@@ -1,10 +1,11 @@
 package tacos.web.api;
 
-import java.util.Optional;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
 
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,8 +14,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import tacos.Ingredient;
 import tacos.Taco;
+import tacos.data.DataVersions;
+import tacos.data.RecentTacos;
 import tacos.data.TacoRepository;
 
 @RestController
@@ -23,16 +28,26 @@ import tacos.data.TacoRepository;
 @CrossOrigin(origins="http://tacocloud:8080")        // <2>
 public class TacoController {
   private TacoRepository tacoRepo;
+  private RecentTacos recentTacos;
+  private DataVersions versions;
 
-  public TacoController(TacoRepository tacoRepo) {
+  public TacoController(TacoRepository tacoRepo, RecentTacos recentTacos,
+          DataVersions versions) {
     this.tacoRepo = tacoRepo;
+    this.recentTacos = recentTacos;
+    this.versions = versions;
   }
 
+  /**
+   * Serves the newest tacos from memory. A client that sends back the
+   * ETag gets a 304 until another taco is saved.
+   */
   @GetMapping(params="recent")
-  public Iterable<Taco> recentTacos() {                 //<3>
-    PageRequest page = PageRequest.of(
-            0, 12, Sort.by("createdAt").descending());
-    return tacoRepo.findAll(page).getContent();
+  public ResponseEntity<List<Taco>> recentTacos() {     //<3>
+    RecentTacos.Snapshot recent = recentTacos.snapshot();
+    return ResponseEntity.ok()
+        .eTag(recent.getVersion())
+        .body(recent.getTacos());
   }
 
   @PostMapping(consumes="application/json")
@@ -41,9 +56,36 @@ public class TacoController {
     return tacoRepo.save(taco);
   }
 
+  /**
+   * A client that sends back the ETag gets a 304, without a query,
+   * until some taco or ingredient is updated or deleted; a taco's body
+   * includes its ingredients. A taco that doesn't exist is a 404 with
+   * no validators, so that the client has nothing to revalidate.
+   */
   @GetMapping("/{id}")
-  public Optional<Taco> tacoById(@PathVariable("id") Long id) {
-    return tacoRepo.findById(id);
+  public ResponseEntity<Taco> tacoById(@PathVariable("id") Long id,
+          HttpServletRequest request) {
+    DataVersions.Version tacos = versions.item(Taco.class);
+    DataVersions.Version ingredients = versions.item(Ingredient.class);
+    String etag = "taco-" + id + "-" + tacos.getTag()
+        + "-" + ingredients.getTag();
+    long lastModified = Math.max(tacos.getLastModified(),
+        ingredients.getLastModified());
+
+    // Without a response to write to, the check leaves the headers to
+    // the ResponseEntity below, so that a 404 carries none.
+    if (new ServletWebRequest(request).checkNotModified(etag, lastModified)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .lastModified(lastModified)
+          .build();
+    }
+    return tacoRepo.findById(id)
+        .map(taco -> ResponseEntity.ok()
+            .eTag(etag)
+            .lastModified(lastModified)
+            .body(taco))
+        .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
   /*
@@ -0,0 +1,71 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import tacos.Ingredient;
+import tacos.Taco;
+
+public class DataVersionsTest {
+
+  private static final Instant START = Instant.parse("2024-01-01T12:00:00Z");
+
+  private final DataVersions versions =
+      new DataVersions(null, Clock.fixed(START, ZoneOffset.UTC));
+
+  @Test
+  public void shouldStartAtTheSameVersionUntilSomethingIsWritten() {
+    String tag = versions.list(Taco.class).getTag();
+
+    assertThat(versions.list(Taco.class).getTag()).isEqualTo(tag);
+    assertThat(versions.list(Taco.class).getLastModified())
+        .isEqualTo(START.toEpochMilli());
+  }
+
+  @Test
+  public void shouldMoveOnlyTheListVersionOnInsert() {
+    String list = versions.list(Taco.class).getTag();
+    String item = versions.item(Taco.class).getTag();
+
+    versions.added(Taco.class);
+
+    assertThat(versions.list(Taco.class).getTag()).isNotEqualTo(list);
+    assertThat(versions.item(Taco.class).getTag()).isEqualTo(item);
+  }
+
+  @Test
+  public void shouldMoveBothVersionsOnUpdateOrDelete() {
+    String list = versions.list(Taco.class).getTag();
+    String item = versions.item(Taco.class).getTag();
+
+    versions.changed(Taco.class);
+
+    assertThat(versions.list(Taco.class).getTag()).isNotEqualTo(list);
+    assertThat(versions.item(Taco.class).getTag()).isNotEqualTo(item);
+  }
+
+  @Test
+  public void shouldVersionEachTypeSeparately() {
+    String ingredients = versions.list(Ingredient.class).getTag();
+
+    versions.changed(Taco.class);
+
+    assertThat(versions.list(Ingredient.class).getTag())
+        .isEqualTo(ingredients);
+  }
+
+  @Test
+  public void shouldNotReuseTagsAcrossRestarts() {
+    DataVersions restarted = new DataVersions(null,
+        Clock.fixed(START.plusSeconds(60), ZoneOffset.UTC));
+
+    assertThat(restarted.list(Taco.class).getTag())
+        .isNotEqualTo(versions.list(Taco.class).getTag());
+  }
+
+}
@@ -0,0 +1,183 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JdbcOrderExporterTests {
+
+  private static final String[] SCHEMA = {
+      "create table Taco_Order (id bigint primary key,"
+          + " placed_at timestamp, user_id bigint,"
+          + " delivery_name varchar(50), delivery_street varchar(50),"
+          + " delivery_city varchar(50), delivery_state varchar(2),"
+          + " delivery_zip varchar(10), cc_number varchar(16),"
+          + " cc_expiration varchar(5), cc_cvv varchar(3))",
+      "create table Taco (id bigint primary key, name varchar(50),"
+          + " created_at timestamp)",
+      "create table Ingredient (id varchar(4) primary key,"
+          + " name varchar(25), type varchar(10))",
+      "create table Taco_Order_Tacos (taco_order_id bigint not null"
+          + " references Taco_Order(id), tacos_id bigint not null"
+          + " references Taco(id))",
+      "create table Taco_Ingredients (taco_id bigint not null"
+          + " references Taco(id), ingredients_id varchar(4) not null"
+          + " references Ingredient(id))",
+      "insert into Ingredient values ('FLTO', 'Flour Tortilla', 'WRAP'),"
+          + " ('GRBF', 'Ground Beef', 'PROTEIN'), ('CHED', 'Cheddar', 'CHEESE')"
+  };
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void shouldWriteOneLinePerOrderWithItsTacos() throws Exception {
+    DataSource dataSource = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .build();
+    JdbcTemplate jdbc = createSchema(dataSource);
+    jdbc.update("insert into Taco_Order (id, placed_at, delivery_name)"
+        + " values (1, timestamp '2024-05-01 12:00:00', 'Craig'),"
+        + " (2, timestamp '2024-05-01 12:05:00', 'Buzz')");
+    jdbc.update("insert into Taco values"
+        + " (10, 'Carnivore', timestamp '2024-05-01 11:59:00'),"
+        + " (11, 'Cheesy', timestamp '2024-05-01 11:59:30')");
+    jdbc.update("insert into Taco_Order_Tacos values (1, 10), (1, 11)");
+    jdbc.update("insert into Taco_Ingredients values"
+        + " (10, 'FLTO'), (10, 'GRBF'), (11, 'CHED')");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long exported = exporter(dataSource).export(out, 2);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(exported).isEqualTo(2);
+    assertThat(lines).hasSize(2);
+
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertThat(first.get("id").asLong()).isEqualTo(1);
+    assertThat(first.get("deliveryName").asText()).isEqualTo("Craig");
+    assertThat(first.get("tacos")).hasSize(2);
+    assertThat(first.get("tacos").get(0).get("name").asText())
+        .isEqualTo("Carnivore");
+    assertThat(first.get("tacos").get(0).get("ingredients"))
+        .extracting(JsonNode::asText)
+        .containsExactlyInAnyOrder("FLTO", "GRBF");
+    assertThat(first.get("tacos").get(1).get("ingredients"))
+        .extracting(JsonNode::asText)
+        .containsExactly("CHED");
+
+    JsonNode second = objectMapper.readTree(lines[1]);
+    assertThat(second.get("id").asLong()).isEqualTo(2);
+    assertThat(second.get("tacos")).isEmpty();
+  }
+
+  @Test
+  public void shouldStartEveryLineWithItsOrder() throws Exception {
+    DataSource dataSource = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .build();
+    JdbcTemplate jdbc = createSchema(dataSource);
+    jdbc.update("insert into Taco_Order (id, delivery_name)"
+        + " values (1, 'Craig'), (2, 'Buzz'), (3, 'Woody')");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter(dataSource).export(out, 2);
+
+    assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+        line(1, "Craig") + line(2, "Buzz") + line(3, "Woody"));
+  }
+
+  private static String line(long id, String deliveryName) {
+    return "{\"id\":" + id + ",\"placedAt\":null,"
+        + "\"deliveryName\":\"" + deliveryName + "\","
+        + "\"deliveryStreet\":null,\"deliveryCity\":null,"
+        + "\"deliveryState\":null,\"deliveryZip\":null,\"tacos\":[]}\n";
+  }
+
+  /**
+   * Exports a large synthetic data set from a file-backed database, so
+   * that neither the data nor the result set has to live on the heap.
+   * Run it with a capped heap to check memory stays flat, e.g.
+   * {@code mvn test -Dtest=JdbcOrderExporterTests
+   * -Dtacos.export.orders=1000000 -DargLine=-Xmx64m}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named="tacos.export.orders", matches="\\d+")
+  public void shouldStreamLargeExportsInConstantMemory(@TempDir Path dir)
+      throws Exception {
+    long orders = Long.getLong("tacos.export.orders");
+    DataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:file:" + dir.resolve("export").toAbsolutePath());
+    JdbcTemplate jdbc = createSchema(dataSource);
+    jdbc.update("insert into Taco_Order"
+        + " select x, dateadd('SECOND', x, timestamp '2024-01-01 00:00:00'),"
+        + " null, 'Customer ' || x, '123 North Street', 'Cross Roads',"
+        + " 'TX', '76227', '4111111111111111', '12/30', '123'"
+        + " from system_range(1, ?)", orders);
+    jdbc.update("insert into Taco"
+        + " select x, 'Taco ' || x, timestamp '2024-01-01 00:00:00'"
+        + " from system_range(1, ?)", orders);
+    jdbc.update("insert into Taco_Order_Tacos"
+        + " select x, x from system_range(1, ?)", orders);
+    jdbc.update("insert into Taco_Ingredients"
+        + " select x, 'FLTO' from system_range(1, ?)"
+        + " union all select x, 'GRBF' from system_range(1, ?)",
+        orders, orders);
+
+    LineCountingOutputStream out = new LineCountingOutputStream();
+    long exported = exporter(dataSource).export(out, 1000);
+
+    assertThat(exported).isEqualTo(orders);
+    assertThat(out.lines).isEqualTo(orders);
+  }
+
+  private JdbcTemplate createSchema(DataSource dataSource) {
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.batchUpdate(SCHEMA);
+    return jdbc;
+  }
+
+  private JdbcOrderExporter exporter(DataSource dataSource) {
+    return new JdbcOrderExporter(new JdbcTemplate(dataSource),
+        new DataSourceTransactionManager(dataSource), objectMapper);
+  }
+
+  private static class LineCountingOutputStream extends OutputStream {
+
+    long lines;
+
+    @Override
+    public void write(int b) {
+      if (b == '\n') {
+        lines++;
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      for (int i = off; i < off + len; i++) {
+        write(b[i]);
+      }
+    }
+
+  }
+
+}
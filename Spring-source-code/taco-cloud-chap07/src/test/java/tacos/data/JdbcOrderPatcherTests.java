@@ -0,0 +1,153 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import tacos.TacoOrder;
+
+public class JdbcOrderPatcherTests {
+
+  private static final String[] SCHEMA = {
+      "create table Taco_Order (id bigint primary key,"
+          + " placed_at timestamp, user_id bigint,"
+          + " delivery_name varchar(50), delivery_street varchar(50),"
+          + " delivery_city varchar(50), delivery_state varchar(2),"
+          + " delivery_zip varchar(10), cc_number varchar(16),"
+          + " cc_expiration varchar(5), cccvv varchar(3))",
+      "create table Taco (id bigint primary key, name varchar(50),"
+          + " created_at timestamp)",
+      "create table Taco_Order_Tacos (taco_order_id bigint not null"
+          + " references Taco_Order(id), tacos_id bigint not null"
+          + " references Taco(id))"
+  };
+
+  private JdbcTemplate jdbc;
+  private DataVersions versions;
+  private JdbcOrderPatcher patcher;
+
+  @BeforeEach
+  public void setup() {
+    DataSource dataSource = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .build();
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.batchUpdate(SCHEMA);
+    jdbc.update("insert into Taco_Order values (1,"
+        + " timestamp '2024-05-01 12:00:00', null, 'Craig', '1 Main St',"
+        + " 'Dallas', 'TX', '75001', '4111111111111111', '12/30', '123')");
+    versions = new DataVersions(null, Clock.systemUTC());
+    patcher = new JdbcOrderPatcher(jdbc, versions);
+  }
+
+  @Test
+  public void shouldSetOnlyThePatchedColumns() {
+    patcher.patch(1, Map.of("deliveryCity", "Austin"), null);
+
+    assertThat(jdbc.queryForMap("select delivery_name, delivery_city,"
+        + " cc_number from Taco_Order where id = 1"))
+        .containsEntry("DELIVERY_NAME", "Craig")
+        .containsEntry("DELIVERY_CITY", "Austin")
+        .containsEntry("CC_NUMBER", "4111111111111111");
+  }
+
+  @Test
+  public void shouldClearAPropertyPatchedToNull() {
+    patcher.patch(1, Collections.singletonMap("ccCVV", null), null);
+
+    assertThat(jdbc.queryForObject(
+        "select cccvv from Taco_Order where id = 1", String.class))
+        .isNull();
+  }
+
+  @Test
+  public void shouldApplyOnlyOnePatchFromTheSameTag() {
+    String tag = patcher.tag(1);
+
+    String next = patcher.patch(1, Map.of("deliveryZip", "75002"), tag);
+
+    assertThat(next).isNotEqualTo(tag).isEqualTo(patcher.tag(1));
+    assertThatThrownBy(() ->
+        patcher.patch(1, Map.of("deliveryZip", "75003"), tag))
+        .isInstanceOf(OptimisticLockingFailureException.class);
+    assertThat(jdbc.queryForObject(
+        "select delivery_zip from Taco_Order where id = 1", String.class))
+        .isEqualTo("75002");
+  }
+
+  @Test
+  public void shouldMoveTheOrderVersion() {
+    String before = versions.item(TacoOrder.class).getTag();
+
+    patcher.patch(1, Map.of("deliveryName", "Buzz"), null);
+
+    assertThat(versions.item(TacoOrder.class).getTag()).isNotEqualTo(before);
+  }
+
+  @Test
+  public void shouldFailForAMissingOrder() {
+    assertThatThrownBy(() ->
+        patcher.patch(2, Map.of("deliveryName", "Buzz"), null))
+        .isInstanceOf(EmptyResultDataAccessException.class);
+    assertThatThrownBy(() ->
+        patcher.patch(2, Map.of("deliveryName", "Buzz"), "order-2-0"))
+        .isInstanceOf(EmptyResultDataAccessException.class);
+  }
+
+  @Test
+  public void shouldRejectPropertiesOutsideTheOrderRow() {
+    assertThatThrownBy(() ->
+        patcher.patch(1, Map.of("tacos", "[]"), null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Reports patch latency for orders of growing size, which should stay
+   * flat. Run it with {@code -Dtacos.patch.iterations=20000}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named="tacos.patch.iterations", matches="\\d+")
+  public void reportLatencyByTacoCount() {
+    int iterations = Integer.getInteger("tacos.patch.iterations");
+    long orderId = 1;
+    for (int tacos : new int[] {1, 10, 100, 1000}) {
+      orderId++;
+      jdbc.update("insert into Taco_Order (id, delivery_name)"
+          + " values (?, 'Customer')", orderId);
+      jdbc.update("insert into Taco select x + ? * 10000, 'Taco ' || x,"
+          + " current_timestamp from system_range(1, ?)", orderId, tacos);
+      jdbc.update("insert into Taco_Order_Tacos select ?, x + ? * 10000"
+          + " from system_range(1, ?)", orderId, orderId, tacos);
+
+      Map<String, String> change = new HashMap<>();
+      String tag = patcher.tag(orderId);
+      long start = 0;
+      for (int i = -iterations; i < iterations; i++) {
+        if (i == 0) {
+          start = System.nanoTime();
+        }
+        change.put("deliveryZip", Integer.toString(i & 0xffff));
+        tag = patcher.patch(orderId, change, tag);
+      }
+      System.out.printf("%4d tacos: %6.1f us/patch%n", tacos,
+          (System.nanoTime() - start) / 1e3 / iterations);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Taco;
+import tacos.TacoOrder;
+
+// Not transactional itself, so that the saver's own transactions
+// commit and roll back for real.
+@DataJpaTest
+@Import({OrderBatchSaver.class, JdbcBatchingConfig.class})
+@Transactional(propagation=Propagation.NOT_SUPPORTED)
+public class OrderBatchSaverJpaTests {
+
+  @Autowired
+  OrderBatchSaver saver;
+
+  @Autowired
+  OrderRepository orderRepo;
+
+  @Autowired
+  IngredientRepository ingredientRepo;
+
+  Ingredient flourTortilla = new Ingredient("FLTO", "Flour Tortilla", Type.WRAP);
+  Ingredient carnitas = new Ingredient("CARN", "Carnitas", Type.PROTEIN);
+
+  @BeforeEach
+  public void setup() {
+    ingredientRepo.saveAll(List.of(flourTortilla, carnitas));
+  }
+
+  @AfterEach
+  public void cleanup() {
+    orderRepo.deleteAll();
+  }
+
+  @Test
+  public void shouldSaveTheRestOfABatchWithTacosWhenOneOrderFails() {
+    // Longer than the delivery_name column.
+    List<TacoOrder> orders = List.of(
+        order("Craig"), order("B".repeat(256)), order("Buzz"));
+
+    Map<Integer, RuntimeException> failures = saver.saveAll(orders);
+
+    assertThat(failures).containsOnlyKeys(1);
+    assertThat(orders.get(0).getId()).isNotNull();
+    assertThat(orders.get(1).getId()).isNull();
+    assertThat(orders.get(2).getId()).isNotNull();
+    assertThat(orders.get(0).getTacos()).extracting(Taco::getId)
+        .doesNotContainNull();
+    assertThat(orders.get(1).getTacos()).extracting(Taco::getId)
+        .containsOnlyNulls();
+    assertThat(orderRepo.count()).isEqualTo(2);
+  }
+
+  private TacoOrder order(String deliveryName) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName(deliveryName);
+    order.setDeliveryStreet("1234 Test Lane");
+    order.setDeliveryCity("Testville");
+    order.setDeliveryState("CO");
+    order.setDeliveryZip("80123");
+    order.setCcNumber("4111111111111111");
+    order.setCcExpiration("10/29");
+    order.setCcCVV("123");
+    for (int i = 1; i <= 2; i++) {
+      Taco taco = new Taco();
+      taco.setName("Taco Number " + i);
+      taco.setIngredients(new ArrayList<>(List.of(flourTortilla, carnitas)));
+      order.addTaco(taco);
+    }
+    return order;
+  }
+
+}
@@ -0,0 +1,84 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import tacos.Taco;
+import tacos.TacoOrder;
+
+public class OrderBatchSaverTests {
+
+  OrderRepository orderRepo = mock(OrderRepository.class);
+
+  OrderBatchSaver saver = new OrderBatchSaver(orderRepo,
+      mock(PlatformTransactionManager.class));
+
+  AtomicLong ids = new AtomicLong();
+
+  @Test
+  public void shouldSaveTheWholeBatchAtOnce() {
+    when(orderRepo.saveAll(anyIterable())).thenAnswer(invocation -> {
+      Iterable<TacoOrder> orders = invocation.getArgument(0);
+      orders.forEach(order -> order.setId(ids.incrementAndGet()));
+      return orders;
+    });
+    List<TacoOrder> orders = List.of(order("Craig"), order("Buzz"));
+
+    assertThat(saver.saveAll(orders)).isEmpty();
+    assertThat(orders).extracting(TacoOrder::getId).containsExactly(1L, 2L);
+    verify(orderRepo, never()).save(any());
+  }
+
+  @Test
+  public void shouldFailOnlyTheOrdersThatCantBeSaved() {
+    when(orderRepo.saveAll(anyIterable())).thenAnswer(invocation -> {
+      Iterable<TacoOrder> orders = invocation.getArgument(0);
+      orders.forEach(order -> {
+        order.setId(ids.incrementAndGet());
+        order.getTacos().forEach(taco -> taco.setId(ids.incrementAndGet()));
+      });
+      throw new DataIntegrityViolationException("too long");
+    });
+    when(orderRepo.save(any())).thenAnswer(invocation -> {
+      TacoOrder order = invocation.getArgument(0);
+      assertThat(order.getId()).isNull();
+      assertThat(order.getTacos()).extracting(Taco::getId).containsOnlyNulls();
+      if (order.getDeliveryName().length() > 50) {
+        throw new DataIntegrityViolationException("too long");
+      }
+      order.setId(ids.incrementAndGet());
+      return order;
+    });
+    List<TacoOrder> orders = List.of(
+        order("Craig"), order("B".repeat(51)), order("Buzz"));
+
+    Map<Integer, RuntimeException> failures = saver.saveAll(orders);
+
+    assertThat(failures).containsOnlyKeys(1);
+    assertThat(orders).extracting(TacoOrder::getId)
+        .containsExactly(7L, null, 8L);
+  }
+
+  private static TacoOrder order(String deliveryName) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName(deliveryName);
+    Taco taco = new Taco();
+    taco.setName("Taco for " + deliveryName);
+    order.addTaco(taco);
+    return order;
+  }
+
+}
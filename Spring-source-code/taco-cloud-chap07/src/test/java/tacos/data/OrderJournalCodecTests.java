@@ -0,0 +1,78 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tacos.TacoOrder;
+
+public class OrderJournalCodecTests {
+
+  private static final String KEY =
+      Base64.getEncoder().encodeToString(new byte[32]);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void shouldNeverJournalTheCardInTheClear() throws Exception {
+    for (String key : new String[] {null, KEY}) {
+      String payload = new String(new OrderJournalCodec(objectMapper, key)
+          .encode(order()), StandardCharsets.UTF_8);
+
+      assertThat(payload)
+          .doesNotContain("4111111111111111")
+          .doesNotContain("ccCVV")
+          .contains("Craig");
+    }
+  }
+
+  @Test
+  public void shouldMaskTheCardNumberWithoutAKey() throws Exception {
+    OrderJournalCodec codec = new OrderJournalCodec(objectMapper, null);
+
+    TacoOrder decoded = codec.decode(codec.encode(order()));
+
+    assertThat(decoded.getCcNumber()).isEqualTo("************1111");
+    assertThat(decoded.getCcCVV()).isNull();
+    assertThat(decoded.getDeliveryName()).isEqualTo("Craig");
+  }
+
+  @Test
+  public void shouldDecryptTheCardNumberWithTheKey() throws Exception {
+    OrderJournalCodec codec = new OrderJournalCodec(objectMapper, KEY);
+
+    TacoOrder decoded = codec.decode(codec.encode(order()));
+
+    assertThat(decoded.getCcNumber()).isEqualTo("4111111111111111");
+    assertThat(decoded.getCcCVV()).isNull();
+  }
+
+  @Test
+  public void shouldRefuseAPayloadItCantDecrypt() throws Exception {
+    byte[] payload = new OrderJournalCodec(objectMapper, KEY).encode(order());
+    byte[] otherKey = new byte[32];
+    otherKey[0] = 1;
+
+    assertThatIOException().isThrownBy(() -> new OrderJournalCodec(
+        objectMapper, Base64.getEncoder().encodeToString(otherKey))
+        .decode(payload));
+    assertThatIOException().isThrownBy(() ->
+        new OrderJournalCodec(objectMapper, null).decode(payload));
+  }
+
+  private static TacoOrder order() {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName("Craig");
+    order.setCcNumber("4111111111111111");
+    order.setCcExpiration("10/29");
+    order.setCcCVV("123");
+    return order;
+  }
+
+}
@@ -0,0 +1,95 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OrderJournalTests {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  public void shouldRecoverEntriesPastTheCheckpoint() throws Exception {
+    try (OrderJournal journal = new OrderJournal(dir, true)) {
+      journal.append(bytes("one"));
+      journal.append(bytes("two"));
+      journal.append(bytes("three"));
+      journal.checkpoint(1);
+    }
+
+    try (OrderJournal journal = new OrderJournal(dir, true)) {
+      assertThat(journal.recovered())
+          .extracting(entry -> entry.sequence)
+          .containsExactly(2L, 3L);
+      assertThat(new String(journal.recovered().get(0).payload,
+          StandardCharsets.UTF_8)).isEqualTo("two");
+      assertThat(journal.append(bytes("four"))).isEqualTo(4);
+    }
+  }
+
+  @Test
+  public void shouldEmptyTheLogOnceEverythingIsCheckpointed()
+      throws Exception {
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      journal.append(bytes("one"));
+      journal.append(bytes("two"));
+      journal.checkpoint(2);
+    }
+
+    assertThat(Files.size(dir.resolve("orders.journal"))).isZero();
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      assertThat(journal.recovered()).isEmpty();
+      assertThat(journal.append(bytes("three"))).isEqualTo(3);
+    }
+  }
+
+  @Test
+  public void shouldDropATornRecord() throws Exception {
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      journal.append(bytes("one"));
+      journal.append(bytes("two"));
+    }
+    Path log = dir.resolve("orders.journal");
+    try (FileChannel channel = FileChannel.open(log,
+        StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 2);
+    }
+
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      assertThat(journal.recovered())
+          .extracting(entry -> entry.sequence)
+          .containsExactly(1L);
+      assertThat(journal.append(bytes("again"))).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void shouldDropARecordWithABadChecksum() throws Exception {
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      journal.append(bytes("one"));
+    }
+    Path log = dir.resolve("orders.journal");
+    try (FileChannel channel = FileChannel.open(log,
+        StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(bytes("X")), 12);
+    }
+
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      assertThat(journal.recovered()).isEmpty();
+    }
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,82 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Taco;
+
+// Not transactional itself, so that the feeder sees real commits.
+@DataJpaTest
+@Import({RecentTacos.class, RecentTacosProps.class, RecentTacosFeeder.class})
+@Transactional(propagation=Propagation.NOT_SUPPORTED)
+public class RecentTacosFeederTests {
+
+  @Autowired
+  RecentTacos recentTacos;
+
+  @Autowired
+  TacoRepository tacoRepo;
+
+  @Autowired
+  IngredientRepository ingredientRepo;
+
+  Ingredient flourTortilla = new Ingredient("FLTO", "Flour Tortilla", Type.WRAP);
+
+  @BeforeEach
+  public void setup() {
+    ingredientRepo.save(flourTortilla);
+  }
+
+  @AfterEach
+  public void cleanup() {
+    tacoRepo.deleteAll();
+  }
+
+  @Test
+  public void shouldFollowTacosThroughInsertUpdateAndDelete() {
+    Taco taco = tacoRepo.save(taco("Carnitas Taco"));
+    Long id = taco.getId();
+    assertThat(recentTacos.snapshot().getTacos())
+        .extracting(Taco::getName)
+        .containsExactly("Carnitas Taco");
+    String inserted = recentTacos.snapshot().getVersion();
+
+    Taco found = tacoRepo.findById(id).get();
+    found.setName("Renamed Taco");
+    tacoRepo.save(found);
+    RecentTacos.Snapshot updated = recentTacos.snapshot();
+    assertThat(updated.getTacos())
+        .extracting(Taco::getName)
+        .containsExactly("Renamed Taco");
+    assertThat(updated.getTacos().get(0).getIngredients())
+        .extracting(Ingredient::getId)
+        .containsExactly("FLTO");
+    assertThat(updated.getVersion()).isNotEqualTo(inserted);
+
+    tacoRepo.deleteById(id);
+    RecentTacos.Snapshot deleted = recentTacos.snapshot();
+    assertThat(deleted.getTacos()).isEmpty();
+    assertThat(deleted.getVersion()).isNotEqualTo(updated.getVersion());
+  }
+
+  private Taco taco(String name) {
+    Taco taco = new Taco();
+    taco.setName(name);
+    taco.setIngredients(new ArrayList<>(List.of(flourTortilla)));
+    return taco;
+  }
+
+}
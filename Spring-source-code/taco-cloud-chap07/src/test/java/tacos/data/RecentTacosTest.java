@@ -0,0 +1,160 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Taco;
+
+public class RecentTacosTest {
+
+  private RecentTacos recentTacos;
+
+  @BeforeEach
+  public void setup() {
+    RecentTacosProps props = new RecentTacosProps();
+    props.setSize(3);
+    recentTacos = new RecentTacos(props);
+  }
+
+  @Test
+  public void shouldServeTheNewestTacosFirst() {
+    for (long id = 1; id <= 5; id++) {
+      recentTacos.add(taco(id));
+    }
+
+    assertThat(recentTacos.snapshot().getTacos())
+        .extracting(Taco::getId)
+        .containsExactly(5L, 4L, 3L);
+  }
+
+  @Test
+  public void shouldServeFewerTacosUntilTheRingFills() {
+    assertThat(recentTacos.snapshot().getTacos()).isEmpty();
+
+    recentTacos.add(taco(1));
+
+    assertThat(recentTacos.snapshot().getTacos())
+        .extracting(Taco::getId)
+        .containsExactly(1L);
+  }
+
+  @Test
+  public void shouldChangeVersionOnlyWhenATacoIsAdded() {
+    recentTacos.add(taco(1));
+    String version = recentTacos.snapshot().getVersion();
+
+    assertThat(recentTacos.snapshot().getVersion()).isEqualTo(version);
+    recentTacos.add(taco(2));
+    assertThat(recentTacos.snapshot().getVersion()).isNotEqualTo(version);
+  }
+
+  @Test
+  public void shouldReplaceAnUpdatedTacoInPlace() {
+    for (long id = 1; id <= 3; id++) {
+      recentTacos.add(taco(id));
+    }
+    String version = recentTacos.snapshot().getVersion();
+
+    Taco renamed = taco(2);
+    renamed.setName("Renamed Taco");
+    recentTacos.update(renamed);
+
+    RecentTacos.Snapshot snapshot = recentTacos.snapshot();
+    assertThat(snapshot.getTacos())
+        .extracting(Taco::getName)
+        .containsExactly("Taco 3", "Renamed Taco", "Taco 1");
+    assertThat(snapshot.getVersion()).isNotEqualTo(version);
+  }
+
+  @Test
+  public void shouldDropADeletedTaco() {
+    for (long id = 1; id <= 3; id++) {
+      recentTacos.add(taco(id));
+    }
+    String version = recentTacos.snapshot().getVersion();
+
+    recentTacos.remove(2L);
+
+    RecentTacos.Snapshot snapshot = recentTacos.snapshot();
+    assertThat(snapshot.getTacos())
+        .extracting(Taco::getId)
+        .containsExactly(3L, 1L);
+    assertThat(snapshot.getVersion()).isNotEqualTo(version);
+  }
+
+  @Test
+  public void shouldIgnoreChangesToTacosNoLongerHeld() {
+    for (long id = 1; id <= 4; id++) {
+      recentTacos.add(taco(id));
+    }
+    String version = recentTacos.snapshot().getVersion();
+
+    recentTacos.update(taco(1));
+    recentTacos.remove(1L);
+
+    assertThat(recentTacos.snapshot().getVersion()).isEqualTo(version);
+  }
+
+  @Test
+  public void shouldServeCopiesNotTheTacosItWasGiven() {
+    Taco taco = taco(1);
+    taco.addIngredient(new Ingredient("FLTO", "Flour Tortilla", Type.WRAP));
+    recentTacos.add(taco);
+
+    taco.setName("Changed Elsewhere");
+    taco.getIngredients().get(0).setName("Changed Elsewhere");
+    taco.getIngredients().clear();
+
+    Taco served = recentTacos.snapshot().getTacos().get(0);
+    assertThat(served).isNotSameAs(taco);
+    assertThat(served.getName()).isEqualTo("Taco 1");
+    assertThat(served.getIngredients())
+        .extracting(Ingredient::getName)
+        .containsExactly("Flour Tortilla");
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> served.getIngredients().clear());
+  }
+
+  @Test
+  public void shouldKeepTheNewestTacosUnderConcurrentAdds() throws Exception {
+    ExecutorService writers = Executors.newFixedThreadPool(4);
+    List<Future<?>> done = new ArrayList<>();
+    for (int w = 0; w < 4; w++) {
+      long first = w * 10_000L;
+      done.add(writers.submit(() -> {
+        for (long id = first; id < first + 10_000; id++) {
+          recentTacos.add(taco(id));
+        }
+      }));
+    }
+    for (Future<?> future : done) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+    writers.shutdown();
+
+    assertThat(recentTacos.snapshot().getTacos())
+        .hasSize(3)
+        .extracting(Taco::getId)
+        .doesNotHaveDuplicates();
+  }
+
+  private static Taco taco(long id) {
+    Taco taco = new Taco();
+    taco.setId(id);
+    taco.setName("Taco " + id);
+    return taco;
+  }
+
+}
@@ -0,0 +1,233 @@
+package tacos.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tacos.TacoOrder;
+
+public class WriteBehindOrderWriterTests {
+
+  @TempDir
+  Path dir;
+
+  OrderRepository orderRepo = mock(OrderRepository.class);
+
+  List<String> saved = new CopyOnWriteArrayList<>();
+
+  WriteBehindOrderWriter writer;
+
+  @AfterEach
+  public void stopWriter() {
+    if (writer != null && writer.isRunning()) {
+      writer.stop();
+    }
+  }
+
+  @Test
+  public void shouldAcceptOrdersWithoutWaitingForTheDatabase()
+      throws Exception {
+    CountDownLatch databaseAvailable = new CountDownLatch(1);
+    when(orderRepo.saveAll(anyIterable())).thenAnswer(invocation -> {
+      databaseAvailable.await();
+      return record(invocation.getArgument(0));
+    });
+    writer = startWriter(props(100));
+
+    for (int i = 0; i < 50; i++) {
+      writer.accept(order("Customer " + i));
+    }
+    assertThat(saved).isEmpty();
+
+    databaseAvailable.countDown();
+    awaitSaved(50);
+    assertThat(saved).hasSize(50);
+  }
+
+  @Test
+  public void shouldRefuseOrdersOnceTheBacklogIsFull() throws Exception {
+    CountDownLatch databaseAvailable = new CountDownLatch(1);
+    when(orderRepo.saveAll(anyIterable())).thenAnswer(invocation -> {
+      databaseAvailable.await();
+      return record(invocation.getArgument(0));
+    });
+    writer = startWriter(props(2));
+
+    writer.accept(order("first"));
+    writer.accept(order("second"));
+    assertThatExceptionOfType(RejectedExecutionException.class)
+        .isThrownBy(() -> writer.accept(order("third")));
+
+    databaseAvailable.countDown();
+    awaitSaved(2);
+    writer.accept(order("fourth"));
+    awaitSaved(3);
+  }
+
+  @Test
+  public void shouldReplayUnsavedOrdersOnRestart() throws Exception {
+    when(orderRepo.saveAll(anyIterable()))
+        .thenThrow(new DataAccessResourceFailureException("down"));
+    when(orderRepo.save(any()))
+        .thenThrow(new DataAccessResourceFailureException("down"));
+    WriteBehindProps props = props(100);
+    props.setBatchAttempts(1);
+    props.setShutdownTimeout(Duration.ofMillis(200));
+    writer = startWriter(props);
+    writer.accept(order("Craig"));
+    writer.accept(order("Buzz"));
+    writer.stop();
+    assertThat(saved).isEmpty();
+
+    orderRepo = mock(OrderRepository.class);
+    when(orderRepo.saveAll(anyIterable()))
+        .thenAnswer(invocation -> record(invocation.getArgument(0)));
+    writer = startWriter(props);
+
+    awaitSaved(2);
+    assertThat(saved).containsExactlyInAnyOrder("Craig", "Buzz");
+    assertThat(writer.backlog()).isZero();
+  }
+
+  @Test
+  public void shouldDeadLetterAnOrderTheDatabaseRejects() throws Exception {
+    when(orderRepo.saveAll(anyIterable())).thenAnswer(invocation -> {
+      Iterable<TacoOrder> orders = invocation.getArgument(0);
+      orders.forEach(WriteBehindOrderWriterTests::checkColumnLimit);
+      return record(orders);
+    });
+    when(orderRepo.save(any())).thenAnswer(invocation -> {
+      TacoOrder order = invocation.getArgument(0);
+      checkColumnLimit(order);
+      record(List.of(order));
+      return order;
+    });
+    WriteBehindProps props = props(100);
+    props.setBatchAttempts(2);
+    writer = startWriter(props);
+
+    writer.accept(order("Craig"));
+    writer.accept(order("B".repeat(51)));
+    writer.accept(order("Buzz"));
+
+    awaitSaved(2);
+    List<String> deadLetters = awaitDeadLetters(1);
+    assertThat(saved).containsExactlyInAnyOrder("Craig", "Buzz");
+    assertThat(deadLetters.get(0)).contains("\"sequence\":2");
+    awaitBacklog(0);
+    writer.accept(order("Next"));
+    awaitSaved(3);
+  }
+
+  @Test
+  public void shouldDeadLetterRecordsThatDontDecode() throws Exception {
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      journal.append("{\"deliveryName\":".getBytes(StandardCharsets.UTF_8));
+      journal.append(new ObjectMapper().writeValueAsBytes(order("Craig")));
+    }
+    when(orderRepo.saveAll(anyIterable()))
+        .thenAnswer(invocation -> record(invocation.getArgument(0)));
+
+    writer = startWriter(props(100));
+
+    awaitSaved(1);
+    assertThat(awaitDeadLetters(1).get(0)).contains("\"sequence\":1");
+    awaitBacklog(0);
+    writer.stop();
+    try (OrderJournal journal = new OrderJournal(dir, false)) {
+      assertThat(journal.recovered()).isEmpty();
+    }
+  }
+
+  private WriteBehindOrderWriter startWriter(WriteBehindProps props) {
+    OrderBatchSaver batchSaver = new OrderBatchSaver(orderRepo,
+        mock(PlatformTransactionManager.class));
+    WriteBehindOrderWriter writer = new WriteBehindOrderWriter(batchSaver,
+        new ObjectMapper(), props);
+    writer.start();
+    return writer;
+  }
+
+  private WriteBehindProps props(int capacity) {
+    WriteBehindProps props = new WriteBehindProps();
+    props.setJournalDir(dir.toString());
+    props.setFsync(false);
+    props.setBatchSize(10);
+    props.setCapacity(capacity);
+    props.setAcceptTimeout(Duration.ofMillis(10));
+    return props;
+  }
+
+  private Iterable<TacoOrder> record(Iterable<TacoOrder> orders) {
+    orders.forEach(order -> saved.add(order.getDeliveryName()));
+    return orders;
+  }
+
+  private void awaitSaved(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (saved.size() < count && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(saved).hasSizeGreaterThanOrEqualTo(count);
+  }
+
+  private List<String> awaitDeadLetters(int count) throws Exception {
+    Path file = dir.resolve("dead-letters.ndjson");
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    List<String> lines = Collections.emptyList();
+    while (System.nanoTime() < deadline) {
+      lines = Files.exists(file) ? Files.readAllLines(file) : lines;
+      if (lines.size() >= count) {
+        break;
+      }
+      Thread.sleep(10);
+    }
+    assertThat(lines).hasSize(count);
+    return lines;
+  }
+
+  private void awaitBacklog(int backlog) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (writer.backlog() > backlog && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(writer.backlog()).isEqualTo(backlog);
+  }
+
+  // Stands in for a delivery_name column of 50 characters.
+  private static void checkColumnLimit(TacoOrder order) {
+    if (order.getDeliveryName().length() > 50) {
+      throw new DataIntegrityViolationException("value too long");
+    }
+  }
+
+  private static TacoOrder order(String deliveryName) {
+    TacoOrder order = new TacoOrder();
+    order.setDeliveryName(deliveryName);
+    return order;
+  }
+
+}
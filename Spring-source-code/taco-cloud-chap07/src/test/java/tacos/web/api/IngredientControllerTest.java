@@ -0,0 +1,129 @@
+package tacos.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.data.DataVersions;
+import tacos.data.IngredientRepository;
+
+public class IngredientControllerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private IngredientRepository repo;
+
+  private DataVersions versions;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  public void setup() {
+    repo = mock(IngredientRepository.class);
+    when(repo.findAll()).thenReturn(List.of(
+        new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+        new Ingredient("GRBF", "Ground Beef", Type.PROTEIN)));
+    versions = new DataVersions(mock(EntityManagerFactory.class));
+    mockMvc = MockMvcBuilders.standaloneSetup(
+        new IngredientController(repo, versions, objectMapper)).build();
+  }
+
+  @Test
+  public void shouldEncodeOncePerCatalogVersion() throws Exception {
+    byte[] first = mockMvc.perform(get("/api/ingredients"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    byte[] second = mockMvc.perform(get("/api/ingredients"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(second).isEqualTo(first)
+        .isEqualTo(objectMapper.writeValueAsBytes(repo.findAll()));
+    verify(repo, times(2)).findAll();
+
+    versions.added(Ingredient.class);
+    mockMvc.perform(get("/api/ingredients"));
+    verify(repo, times(3)).findAll();
+  }
+
+  @Test
+  public void shouldWriteTheJsonWithItsLength() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/ingredients"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andReturn();
+
+    assertThat(result.getResponse().getContentLength())
+        .isEqualTo(result.getResponse().getContentAsByteArray().length);
+    assertThat(result.getResponse().getContentType())
+        .isEqualTo("application/json");
+  }
+
+  @Test
+  public void shouldServeGzipToClientsThatAcceptIt() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/ingredients")
+            .header("Accept-Encoding", "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andReturn();
+
+    // CORS support adds its own Vary values ahead of ours.
+    assertThat(result.getResponse().getHeaders("Vary"))
+        .contains("Accept-Encoding");
+    byte[] gzipped = result.getResponse().getContentAsByteArray();
+    assertThat(result.getResponse().getContentLength())
+        .isEqualTo(gzipped.length);
+    try (GZIPInputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(gzipped))) {
+      assertThat(in.readAllBytes())
+          .isEqualTo(objectMapper.writeValueAsBytes(repo.findAll()));
+    }
+  }
+
+  @Test
+  public void shouldNotServeGzipToClientsThatRefuseIt() throws Exception {
+    mockMvc.perform(get("/api/ingredients")
+            .header("Accept-Encoding", "gzip;q=0, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Encoding"));
+  }
+
+  @Test
+  public void shouldTagEachEncodingSeparately() throws Exception {
+    String plain = mockMvc.perform(get("/api/ingredients"))
+        .andReturn().getResponse().getHeader("ETag");
+    String gzip = mockMvc.perform(get("/api/ingredients")
+            .header("Accept-Encoding", "gzip"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    assertThat(plain).isNotEqualTo(gzip);
+    mockMvc.perform(get("/api/ingredients")
+            .header("Accept-Encoding", "gzip")
+            .header("If-None-Match", gzip))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/api/ingredients")
+            .header("If-None-Match", gzip))
+        .andExpect(status().isOk());
+  }
+
+}
@@ -0,0 +1,163 @@
+package tacos.web.api;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.validation.Validator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tacos.TacoOrder;
+import tacos.data.DataVersions;
+import tacos.data.JdbcOrderPatcher;
+import tacos.data.OrderBatchSaver;
+import tacos.data.OrderPageRepository;
+import tacos.data.OrderRepository;
+
+public class OrderApiControllerTest {
+
+  private static final String PATCH = "{\"deliveryName\":\"Buzz\"}";
+
+  private OrderRepository repo;
+
+  private JdbcOrderPatcher patcher;
+
+  private OrderBatchSaver batchSaver;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    repo = mock(OrderRepository.class);
+    patcher = mock(JdbcOrderPatcher.class);
+    batchSaver = mock(OrderBatchSaver.class);
+    Validator validator = mock(Validator.class);
+    when(validator.validate(any())).thenReturn(Set.of());
+    OrderApiProps props = new OrderApiProps();
+    props.setMaxBatchOrders(2);
+    TacoOrder order = new TacoOrder();
+    order.setId(1L);
+    order.setDeliveryName("Craig");
+    when(repo.findById(1L)).thenReturn(Optional.of(order));
+    when(patcher.tag(1L)).thenReturn("order-1-abc");
+    when(patcher.tag(2L)).thenThrow(new EmptyResultDataAccessException(1));
+    when(patcher.patch(eq(1L), anyMap(), isNull())).thenReturn("order-1-def");
+    when(patcher.patch(eq(2L), anyMap(), any()))
+        .thenThrow(new EmptyResultDataAccessException(1));
+    mockMvc = MockMvcBuilders.standaloneSetup(new OrderApiController(
+        repo, mock(OrderPageRepository.class), props,
+        mock(ObjectProvider.class), mock(DataVersions.class), patcher,
+        batchSaver, validator, new ObjectMapper())).build();
+  }
+
+  @Test
+  public void shouldServeAnOrderTaggedForPatching() throws Exception {
+    mockMvc.perform(get("/api/orders/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"order-1-abc\""))
+        .andExpect(jsonPath("$.deliveryName").value("Craig"));
+  }
+
+  @Test
+  public void shouldAnswerAMissingOrderWithA404() throws Exception {
+    mockMvc.perform(get("/api/orders/2"))
+        .andExpect(status().isNotFound())
+        .andExpect(header().doesNotExist("ETag"));
+  }
+
+  @Test
+  public void shouldPatchAnyExistingOrderForIfMatchStar() throws Exception {
+    mockMvc.perform(patch("/api/orders/1")
+            .contentType("application/merge-patch+json")
+            .header("If-Match", "*")
+            .content(PATCH))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string("ETag", "\"order-1-def\""));
+    verify(patcher).patch(1L, Map.of("deliveryName", "Buzz"), null);
+  }
+
+  @Test
+  public void shouldFailIfMatchStarForAMissingOrder() throws Exception {
+    mockMvc.perform(patch("/api/orders/2")
+            .contentType("application/merge-patch+json")
+            .header("If-Match", "*")
+            .content(PATCH))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  public void shouldFailASpecificIfMatchForAMissingOrder() throws Exception {
+    mockMvc.perform(patch("/api/orders/2")
+            .contentType("application/merge-patch+json")
+            .header("If-Match", "\"order-2-abc\"")
+            .content(PATCH))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  public void shouldStillAnswer404ForAMissingOrderWithoutIfMatch()
+      throws Exception {
+    mockMvc.perform(patch("/api/orders/2")
+            .contentType("application/merge-patch+json")
+            .content(PATCH))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void shouldSaveABatchUpToTheLimit() throws Exception {
+    mockMvc.perform(post("/api/orders/batch")
+            .contentType("application/json")
+            .content("[{\"deliveryName\":\"Craig\"},"
+                + "{\"deliveryName\":\"Buzz\"}]"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.length()").value(2));
+    verify(batchSaver).saveAll(argThat(orders -> orders.size() == 2));
+  }
+
+  @Test
+  public void shouldRefuseAnOversizedBatchBeforeReadingItAll()
+      throws Exception {
+    // Everything after the third order is never read.
+    mockMvc.perform(post("/api/orders/batch")
+            .contentType("application/json")
+            .content("[{},{},{}, this is not JSON"))
+        .andExpect(status().isBadRequest())
+        .andExpect(status().reason("A batch holds 1 to 2 orders"));
+    verifyNoInteractions(batchSaver);
+  }
+
+  @Test
+  public void shouldRefuseAnEmptyBatch() throws Exception {
+    mockMvc.perform(post("/api/orders/batch")
+            .contentType("application/json")
+            .content("[]"))
+        .andExpect(status().isBadRequest());
+    verifyNoInteractions(batchSaver);
+  }
+
+}
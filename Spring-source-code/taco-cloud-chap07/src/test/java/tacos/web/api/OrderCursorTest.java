@@ -0,0 +1,36 @@
+package tacos.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import tacos.TacoOrder;
+
+public class OrderCursorTest {
+
+  @Test
+  public void shouldRoundTripPlacedAtAndId() {
+    TacoOrder order = new TacoOrder();
+    order.setId(42L);
+    order.setPlacedAt(new Date(1_600_000_000_123L));
+
+    String token = OrderCursor.of(order).encode();
+    OrderCursor cursor = OrderCursor.decode(token);
+
+    assertThat(token).matches("[A-Za-z0-9_-]+");
+    assertThat(cursor.getPlacedAt()).isEqualTo(order.getPlacedAt());
+    assertThat(cursor.getId()).isEqualTo(42L);
+  }
+
+  @Test
+  public void shouldRejectMalformedTokens() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> OrderCursor.decode("not a cursor"));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> OrderCursor.decode("AAAA"));
+  }
+
+}
@@ -0,0 +1,117 @@
+package tacos.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import tacos.data.JdbcOrderExporter;
+
+public class OrderExportControllerTest {
+
+  private static final String LINES = "{\"id\":1}\n{\"id\":2}\n";
+
+  private JdbcOrderExporter exporter;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    exporter = mock(JdbcOrderExporter.class);
+    when(exporter.export(any(OutputStream.class), anyInt()))
+        .thenAnswer(invocation -> {
+          OutputStream out = invocation.getArgument(0);
+          out.write(LINES.getBytes(StandardCharsets.UTF_8));
+          return 2L;
+        });
+    OrderApiProps props = new OrderApiProps();
+    props.setExportTimeout(Duration.ofMinutes(45));
+    mockMvc = MockMvcBuilders.standaloneSetup(
+        new OrderExportController(exporter, props)).build();
+  }
+
+  @Test
+  public void shouldStreamUnderTheExportTimeout() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/orders/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    assertThat(result.getRequest().getAsyncContext().getTimeout())
+        .isEqualTo(Duration.ofMinutes(45).toMillis());
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andExpect(content().string(LINES));
+    verify(exporter).export(any(OutputStream.class), eq(500));
+  }
+
+  @Test
+  public void shouldGzipForClientsThatAcceptIt() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/orders/export")
+            .header("Accept-Encoding", "gzip, deflate"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    byte[] gzipped = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    try (GZIPInputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(gzipped))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo(LINES);
+    }
+  }
+
+  @Test
+  public void shouldNotGzipForClientsThatRefuseIt() throws Exception {
+    for (String acceptEncoding : new String[] {
+        "gzip;q=0, identity", "GZIP; q=0.0", "*;q=0", "br, deflate"}) {
+      MvcResult result = mockMvc.perform(get("/api/orders/export")
+              .header("Accept-Encoding", acceptEncoding))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(header().doesNotExist("Content-Encoding"))
+          .andExpect(content().string(LINES));
+    }
+  }
+
+  @Test
+  public void shouldGzipForAnyEncodingUnlessGzipIsRefused() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/orders/export")
+            .header("Accept-Encoding", "br;q=1, *;q=0.5"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(header().string("Content-Encoding", "gzip"));
+  }
+
+}
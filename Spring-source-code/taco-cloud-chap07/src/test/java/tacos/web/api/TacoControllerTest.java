@@ -0,0 +1,104 @@
+package tacos.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import tacos.Ingredient;
+import tacos.Taco;
+import tacos.data.DataVersions;
+import tacos.data.RecentTacos;
+import tacos.data.TacoRepository;
+
+public class TacoControllerTest {
+
+  private TacoRepository tacoRepo;
+
+  private DataVersions versions;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  public void setup() {
+    tacoRepo = mock(TacoRepository.class);
+    Taco taco = new Taco();
+    taco.setId(1L);
+    taco.setName("Taco 1");
+    when(tacoRepo.findById(1L)).thenReturn(Optional.of(taco));
+    when(tacoRepo.findById(2L)).thenReturn(Optional.empty());
+    versions = new DataVersions(mock(EntityManagerFactory.class));
+    mockMvc = MockMvcBuilders.standaloneSetup(new TacoController(
+        tacoRepo, mock(RecentTacos.class), versions)).build();
+  }
+
+  @Test
+  public void shouldServeATacoWithValidators() throws Exception {
+    mockMvc.perform(get("/api/tacos/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andExpect(header().exists("Last-Modified"))
+        .andExpect(jsonPath("$.name").value("Taco 1"));
+  }
+
+  @Test
+  public void shouldAnswerAMissingTacoWithA404AndNoValidators()
+      throws Exception {
+    mockMvc.perform(get("/api/tacos/2"))
+        .andExpect(status().isNotFound())
+        .andExpect(header().doesNotExist("ETag"))
+        .andExpect(header().doesNotExist("Last-Modified"));
+  }
+
+  @Test
+  public void shouldNotQueryForAnUnchangedTaco() throws Exception {
+    String etag = mockMvc.perform(get("/api/tacos/1"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/api/tacos/1").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag));
+    verify(tacoRepo).findById(1L);
+  }
+
+  @Test
+  public void shouldRetagWhenATacoOrIngredientChanges() throws Exception {
+    String first = etag();
+    versions.changed(Ingredient.class);
+    String second = etag();
+    versions.changed(Taco.class);
+    String third = etag();
+
+    assertThat(first).isNotEqualTo(second);
+    assertThat(second).isNotEqualTo(third);
+    mockMvc.perform(get("/api/tacos/1").header("If-None-Match", first))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void shouldIgnoreAddedIngredients() throws Exception {
+    String etag = etag();
+    versions.added(Ingredient.class);
+
+    assertThat(etag()).isEqualTo(etag);
+  }
+
+  private String etag() throws Exception {
+    return mockMvc.perform(get("/api/tacos/1"))
+        .andReturn().getResponse().getHeader("ETag");
+  }
+
+}
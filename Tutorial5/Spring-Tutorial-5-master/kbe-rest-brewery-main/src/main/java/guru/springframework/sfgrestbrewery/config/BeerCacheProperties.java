@@ -0,0 +1,52 @@
+package guru.springframework.sfgrestbrewery.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sizing and expiry for the beer caches, bound from sfg.brewery.cache.*.
+ *
+ * Example:
+ *   sfg.brewery.cache.specs[beerCache].maximum-size=5000
+ *   sfg.brewery.cache.specs[beerCache].expire-after-write=10m
+ *   sfg.brewery.cache.warm-upcs=0631234200036,9122089364369
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "sfg.brewery.cache")
+public class BeerCacheProperties {
+
+    // Settings per cache name; a cache without an entry gets the defaults below.
+    @Valid
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    // UPCs loaded into beerUpcCache once the application is ready.
+    private List<String> warmUpcs = new ArrayList<>();
+
+    @Data
+    public static class Spec {
+
+        // Entries kept before the least useful ones are evicted.
+        @Min(1)
+        private long maximumSize = 1000;
+
+        // Drop an entry this long after it was cached (null = never).
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        // Drop an entry this long after it was last read (null = never).
+        private Duration expireAfterAccess;
+
+        // Reload an entry in the background on the first read this long after it was
+        // written (null = never). Only beerInventory has a loader, so only it uses this.
+        private Duration refreshAfterWrite;
+    }
+}
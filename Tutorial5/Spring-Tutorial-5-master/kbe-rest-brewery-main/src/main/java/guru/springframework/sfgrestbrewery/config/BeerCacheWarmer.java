@@ -0,0 +1,39 @@
+package guru.springframework.sfgrestbrewery.config;
+
+import guru.springframework.sfgrestbrewery.services.BeerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the hot UPCs (sfg.brewery.cache.warm-upcs) into beerUpcCache at startup,
+ * so the first customers don't pay for the database lookups.
+ *
+ * Runs on ApplicationReadyEvent, i.e. after BeerLoader has inserted its data.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class BeerCacheWarmer {
+
+    private final BeerService beerService;
+    private final BeerCacheProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpcCache() {
+        int warmed = 0;
+        for (String upc : properties.getWarmUpcs()) {
+            try {
+                // Going through the service so the @Cacheable proxy stores the result.
+                if (beerService.getByUpc(upc) != null) {
+                    warmed++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not warm beer cache for UPC {}", upc, e);
+            }
+        }
+        log.debug("Warmed {} of {} hot UPCs", warmed, properties.getWarmUpcs().size());
+    }
+}
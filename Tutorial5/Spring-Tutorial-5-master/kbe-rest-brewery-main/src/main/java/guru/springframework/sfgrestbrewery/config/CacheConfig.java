@@ -0,0 +1,70 @@
+package guru.springframework.sfgrestbrewery.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Backs the @Cacheable methods in BeerServiceImpl with bounded Caffeine caches.
+ *
+ * Each cache gets its own maximum size and expiry from BeerCacheProperties and
+ * records hit/miss/eviction stats, which Actuator publishes as the
+ * cache.gets, cache.puts and cache.evictions metrics. Writes evict entries through
+ * BeerCacheEvictor; the caches are InvalidationAwareCaffeineCaches so a read racing
+ * a write can't put the old value back.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(BeerCacheProperties.class)
+public class CacheConfig {
+
+    public static final String BEER_CACHE = "beerCache";
+    public static final String BEER_UPC_CACHE = "beerUpcCache";
+    public static final String BEER_LIST_CACHE = "beerListCache";
+
+    // Not a Spring cache: BeerInventory builds it with a loader of its own.
+    public static final String BEER_INVENTORY = "beerInventory";
+
+    static final List<String> CACHE_NAMES = List.of(BEER_CACHE, BEER_UPC_CACHE, BEER_LIST_CACHE);
+
+    @Bean
+    public CacheManager cacheManager(BeerCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                                               com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new InvalidationAwareCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+
+        // Any cache not named above is still bounded, using the default spec.
+        cacheManager.setCaffeine(caffeine(new BeerCacheProperties.Spec()));
+
+        for (String name : CACHE_NAMES) {
+            BeerCacheProperties.Spec spec = properties.getSpecs()
+                    .getOrDefault(name, new BeerCacheProperties.Spec());
+            cacheManager.registerCustomCache(name, caffeine(spec).build());
+        }
+        return cacheManager;
+    }
+
+    public static Caffeine<Object, Object> caffeine(BeerCacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats();
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,116 @@
+package guru.springframework.sfgrestbrewery.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * A CaffeineCache that won't store a value loaded before the cache was last invalidated.
+ *
+ * With @Cacheable a reader can miss, load the old row, and only put it after a writer
+ * has saved the new row and evicted the key, which would leave the old value cached
+ * until it expires. So every eviction bumps a counter, a miss remembers the counter
+ * for its thread, and the put that follows is dropped if the counter has moved since.
+ * The caller still gets the value it loaded; it just isn't cached.
+ *
+ * This is per cache, not per key: any eviction skips the puts that were in flight.
+ * Evicting one key and putting it serialize on that key's lock; evictions that sweep
+ * the whole map (evictIf, clear) don't lock keys they haven't reached yet, so they
+ * exclude those puts with a lock of their own.
+ */
+public class InvalidationAwareCaffeineCache extends CaffeineCache {
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Value of the counter when this thread last missed.
+    private final ThreadLocal<Long> missedAt = new ThreadLocal<>();
+
+    // Shared by puts after a miss, exclusive for sweeps.
+    private final ReadWriteLock sweepLock = new ReentrantReadWriteLock();
+
+    public InvalidationAwareCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long seen = invalidations.get();
+        ValueWrapper value = super.get(key);
+        if (value == null) {
+            missedAt.set(seen);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Long seen = missedAt.get();
+        missedAt.remove();
+        if (seen == null) {
+            super.put(key, value);
+            return;
+        }
+        // Checked under the key's lock, which evict() also takes, so the value is either
+        // never stored or stored before the eviction that removes it.
+        Object stored = toStoreValue(value);
+        sweepLock.readLock().lock();
+        try {
+            getNativeCache().asMap().compute(key,
+                    (k, current) -> seen == invalidations.get() ? stored : current);
+        } finally {
+            sweepLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        invalidations.incrementAndGet();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        invalidations.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+
+    /**
+     * Evicts every key matching the filter. Counts as an invalidation even if nothing
+     * matches, since a matching key may be loading right now.
+     */
+    public void evictIf(Predicate<Object> keyFilter) {
+        sweepLock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            getNativeCache().asMap().keySet().removeIf(keyFilter);
+        } finally {
+            sweepLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        sweepLock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            super.clear();
+        } finally {
+            sweepLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        sweepLock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            return super.invalidate();
+        } finally {
+            sweepLock.writeLock().unlock();
+        }
+    }
+}
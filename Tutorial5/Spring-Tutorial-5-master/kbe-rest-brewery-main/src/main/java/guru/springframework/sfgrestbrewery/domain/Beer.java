@@ -9,6 +9,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.Locale;
 import java.util.UUID;
 
 @Data
@@ -16,6 +17,15 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_beer_upc", columnNames = "upc"),
+        indexes = {
+                // findAllByBeerStyle, findAllByBeerNameAndBeerStyle
+                @Index(name = "ix_beer_style_name", columnList = "beerStyle, beerName"),
+                // findAllByBeerName
+                @Index(name = "ix_beer_name", columnList = "beerName"),
+                // case-insensitive and prefix name search
+                @Index(name = "ix_beer_search_name", columnList = "searchName")
+        })
 public class Beer {
 
     @Id
@@ -30,6 +40,11 @@ public class Beer {
     private BeerStyleEnum beerStyle;
     private String upc;
 
+    // beerName in lower case, kept in step on every save so that case-insensitive and
+    // prefix searches (searchName like 'abc%') can use an ordinary index.
+    @Setter(AccessLevel.NONE)
+    private String searchName;
+
     private Integer quantityOnHand;
     private BigDecimal price;
 
@@ -39,4 +54,17 @@ public class Beer {
 
     @UpdateTimestamp
     private Timestamp lastModifiedDate;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchName() {
+        searchName = toSearchName(beerName);
+    }
+
+    /**
+     * The form of a name, or name prefix, that searchName is compared with.
+     */
+    public static String toSearchName(String beerName) {
+        return beerName == null ? null : beerName.toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
@@ -2,10 +2,16 @@ package guru.springframework.sfgrestbrewery.repositories;
 
 import guru.springframework.sfgrestbrewery.domain.Beer;
 import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -33,9 +39,54 @@ public interface BeerRepository extends JpaRepository<Beer, UUID> {
      */
     Page<Beer> findAllByBeerNameAndBeerStyle(String beerName, BeerStyleEnum beerStyle, Pageable pageable);
 
+    /**
+     * Finds beers whose name starts with the prefix, ignoring case, optionally of one style.
+     * The prefix must already be in search form (Beer.toSearchName), so that the
+     * like 'prefix%' comparison can use the searchName index.
+     * Example:
+     *   findAllBySearchNameStartingWith(Beer.toSearchName("Mango"), pageable)
+     */
+    Page<Beer> findAllBySearchNameStartingWith(String searchNamePrefix, Pageable pageable);
+
+    Page<Beer> findAllByBeerStyleAndSearchNameStartingWith(BeerStyleEnum beerStyle, String searchNamePrefix,
+                                                          Pageable pageable);
+
+    /**
+     * The same searches as windows instead of pages: they fetch limit + 1 rows to see
+     * whether there is more, and never run a COUNT query. With an offset position they
+     * page like the methods above; with a keyset position they continue after the
+     * given sort values, which stays cheap however deep the window is.
+     * Example:
+     *   findAllByBeerStyle(BeerStyleEnum.IPA, ScrollPosition.forward(Map.of("id", lastId)),
+     *           Limit.of(25), Sort.by("id"))
+     */
+    Window<Beer> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Beer> findAllByBeerName(String beerName, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Beer> findAllByBeerStyle(BeerStyleEnum beerStyle, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Beer> findAllByBeerNameAndBeerStyle(String beerName, BeerStyleEnum beerStyle,
+                                               ScrollPosition position, Limit limit, Sort sort);
+
     /**
      * Finds a beer using its UPC (Unique Product Code).
-     * Returns a single beer, not a page.
+     * Returns a single beer, not a page; UPCs are unique (uk_beer_upc).
      */
     Beer findByUpc(String upc);
+
+    /**
+     * Reads just the stock levels of the given beers, in one query.
+     * Used by BeerInventory to load and refresh its map.
+     */
+    List<QuantityOnHand> findQuantityOnHandByIdIn(Collection<UUID> ids);
+
+    /**
+     * Projection of a beer's id and stock; Spring Data selects only these two columns.
+     */
+    interface QuantityOnHand {
+        UUID getId();
+
+        Integer getQuantityOnHand();
+    }
 }
\ No newline at end of file
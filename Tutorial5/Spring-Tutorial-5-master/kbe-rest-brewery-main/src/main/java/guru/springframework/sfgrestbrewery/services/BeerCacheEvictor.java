@@ -0,0 +1,81 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.config.CacheConfig;
+import guru.springframework.sfgrestbrewery.config.InvalidationAwareCaffeineCache;
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evicts exactly the cache entries a beer write can make stale: the beer by id, its
+ * UPC, and the list pages whose name/style search it matches, before and after the
+ * write. Everything else stays cached, so the caches can run with long TTLs.
+ *
+ * Inside a transaction the eviction waits until it commits; evicting earlier would
+ * let a reader cache the old row again before the new one is visible.
+ */
+@RequiredArgsConstructor
+@Component
+public class BeerCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * @param states the beer as it was and/or as it is now; nulls are skipped
+     */
+    public void beerChanged(Beer... states) {
+        // Copy the fields now: the entity may be changed again before commit.
+        List<Beer> snapshots = new ArrayList<>();
+        for (Beer beer : states) {
+            if (beer != null) {
+                snapshots.add(Beer.builder()
+                        .id(beer.getId())
+                        .beerName(beer.getBeerName())
+                        .beerStyle(beer.getBeerStyle())
+                        .upc(beer.getUpc())
+                        .build());
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(snapshots);
+                }
+            });
+        } else {
+            evict(snapshots);
+        }
+    }
+
+    private void evict(List<Beer> snapshots) {
+        Cache beerCache = cacheManager.getCache(CacheConfig.BEER_CACHE);
+        Cache upcCache = cacheManager.getCache(CacheConfig.BEER_UPC_CACHE);
+        Cache listCache = cacheManager.getCache(CacheConfig.BEER_LIST_CACHE);
+
+        for (Beer beer : snapshots) {
+            if (beer.getId() != null) {
+                beerCache.evict(beer.getId());
+            }
+            if (beer.getUpc() != null) {
+                upcCache.evict(beer.getUpc());
+            }
+        }
+
+        // Only list pages whose search could include one of the states.
+        if (listCache instanceof InvalidationAwareCaffeineCache pages) {
+            pages.evictIf(key -> !(key instanceof BeerListCacheKey page)
+                    || snapshots.stream().anyMatch(beer -> page.matches(beer.getBeerName(), beer.getBeerStyle())));
+        } else {
+            listCache.clear();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.controller.NotFoundException;
+import guru.springframework.sfgrestbrewery.web.mappers.BeerMapper;
+import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import guru.springframework.sfgrestbrewery.web.model.BeerPagedList;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The cached, inventory-free reads behind BeerServiceImpl.
+ *
+ * Everything returned here leaves quantityOnHand null, so one cached entry serves
+ * requests with and without inventory; BeerServiceImpl adds the stock from
+ * BeerInventory when it's asked for. This is a separate bean so those calls go
+ * through the caching proxy.
+ */
+@RequiredArgsConstructor
+@Component
+public class BeerCatalog {
+
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper;
+
+    /**
+     * List beers with optional search by name/style.
+     */
+    @Cacheable(cacheNames = "beerListCache",
+            key = "T(guru.springframework.sfgrestbrewery.services.BeerListCacheKey).of(#beerName, #beerStyle, #pageRequest)")
+    public BeerPagedList listBeers(String beerName, BeerStyleEnum beerStyle, PageRequest pageRequest) {
+
+        Page<Beer> beerPage;
+
+        // Decide which search query to run
+        if (!StringUtils.isEmpty(beerName) && !StringUtils.isEmpty(beerStyle)) {
+            beerPage = beerRepository.findAllByBeerNameAndBeerStyle(beerName, beerStyle, pageRequest);
+        } else if (!StringUtils.isEmpty(beerName)) {
+            beerPage = beerRepository.findAllByBeerName(beerName, pageRequest);
+        } else if (!StringUtils.isEmpty(beerStyle)) {
+            beerPage = beerRepository.findAllByBeerStyle(beerStyle, pageRequest);
+        } else {
+            beerPage = beerRepository.findAll(pageRequest);
+        }
+
+        return new BeerPagedList(
+                beerPage.getContent()
+                        .stream()
+                        .map(beerMapper::beerToBeerDto)
+                        .collect(Collectors.toList()),
+                beerPage.getPageable(),
+                beerPage.getTotalElements()
+        );
+    }
+
+    /**
+     * Get beer by ID
+     */
+    @Cacheable(cacheNames = "beerCache", key = "#beerId")
+    public BeerDto getById(UUID beerId) {
+        return beerMapper.beerToBeerDto(beerRepository.findById(beerId).orElseThrow(NotFoundException::new));
+    }
+}
@@ -0,0 +1,111 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import guru.springframework.sfgrestbrewery.config.BeerCacheProperties;
+import guru.springframework.sfgrestbrewery.config.CacheConfig;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Stock levels by beer id, kept apart from the cached BeerDtos.
+ *
+ * quantityOnHand changes far more often than the rest of a beer, so the beer caches
+ * hold DTOs without it and inventory reads lay the current stock over them from here.
+ * Entries are loaded in bulk for a whole page, refreshed in the background after
+ * sfg.brewery.cache.specs[beerInventory].refresh-after-write, and can be set directly
+ * by whoever knows the stock has changed.
+ */
+@Component
+public class BeerInventory {
+
+    private final LoadingCache<UUID, Integer> quantities;
+
+    public BeerInventory(BeerRepository beerRepository, BeerCacheProperties properties,
+                         MeterRegistry meterRegistry) {
+        BeerCacheProperties.Spec spec = properties.getSpecs()
+                .getOrDefault(CacheConfig.BEER_INVENTORY, new BeerCacheProperties.Spec());
+
+        var builder = CacheConfig.caffeine(spec);
+        if (spec.getRefreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+        }
+        this.quantities = builder.build(new QuantityLoader(beerRepository));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, quantities, CacheConfig.BEER_INVENTORY);
+    }
+
+    /**
+     * @return the beer's stock, or null if the beer doesn't exist or has no stock level
+     */
+    public Integer quantityOnHand(UUID beerId) {
+        return quantities.get(beerId);
+    }
+
+    /**
+     * Records a new stock level; a null level is dropped and reloaded on the next read.
+     */
+    public void quantityChanged(UUID beerId, Integer quantityOnHand) {
+        if (quantityOnHand != null) {
+            quantities.put(beerId, quantityOnHand);
+        } else {
+            quantities.invalidate(beerId);
+        }
+    }
+
+    /**
+     * Returns a copy of the beer with its current stock; the argument isn't changed,
+     * since it is usually a cached instance.
+     */
+    public BeerDto withQuantityOnHand(BeerDto beer) {
+        return beer.toBuilder()
+                .quantityOnHand(quantityOnHand(beer.getId()))
+                .build();
+    }
+
+    /**
+     * Same as above for a whole page, loading any missing stock levels in one query.
+     */
+    public List<BeerDto> withQuantityOnHand(List<BeerDto> beers) {
+        Map<UUID, Integer> stock = quantities.getAll(beers.stream()
+                .map(BeerDto::getId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        return beers.stream()
+                .map(beer -> beer.toBuilder()
+                        .quantityOnHand(stock.get(beer.getId()))
+                        .build())
+                .toList();
+    }
+
+    private record QuantityLoader(BeerRepository beerRepository) implements CacheLoader<UUID, Integer> {
+
+        @Override
+        public Integer load(UUID beerId) {
+            return loadAll(Set.of(beerId)).get(beerId);
+        }
+
+        // Beers missing from the result (deleted, or no stock level) just aren't cached.
+        @Override
+        public Map<UUID, Integer> loadAll(Set<? extends UUID> beerIds) {
+            Map<UUID, Integer> stock = new HashMap<>();
+            for (BeerRepository.QuantityOnHand row : beerRepository.findQuantityOnHandByIdIn(List.copyOf(beerIds))) {
+                if (row.getQuantityOnHand() != null) {
+                    stock.put(row.getId(), row.getQuantityOnHand());
+                }
+            }
+            return stock;
+        }
+    }
+}
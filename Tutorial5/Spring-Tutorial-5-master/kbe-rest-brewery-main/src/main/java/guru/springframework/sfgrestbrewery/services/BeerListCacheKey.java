@@ -0,0 +1,28 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.StringUtils;
+
+/**
+ * Key of a cached listBeers page.
+ *
+ * Unlike the default SimpleKey it exposes the search filters, so BeerCacheEvictor can
+ * find every page a changed beer could appear on. A blank name means "any name", the
+ * same as in listBeers, and is stored as null.
+ */
+public record BeerListCacheKey(String beerName, BeerStyleEnum beerStyle, int pageNumber, int pageSize) {
+
+    public static BeerListCacheKey of(String beerName, BeerStyleEnum beerStyle, PageRequest pageRequest) {
+        return new BeerListCacheKey(StringUtils.hasLength(beerName) ? beerName : null, beerStyle,
+                pageRequest.getPageNumber(), pageRequest.getPageSize());
+    }
+
+    /**
+     * Whether a beer with this name and style falls within this page's search.
+     */
+    public boolean matches(String name, BeerStyleEnum style) {
+        return (beerName == null || beerName.equals(name))
+                && (beerStyle == null || beerStyle == style);
+    }
+}
@@ -2,6 +2,7 @@ package guru.springframework.sfgrestbrewery.services;
 
 import guru.springframework.sfgrestbrewery.web.model.BeerDto;
 import guru.springframework.sfgrestbrewery.web.model.BeerPagedList;
+import guru.springframework.sfgrestbrewery.web.model.BeerSliceList;
 import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
 import org.springframework.data.domain.PageRequest;
 
@@ -15,6 +16,15 @@ public interface BeerService {
     // List beers with optional filters and pagination.
     BeerPagedList listBeers(String beerName, BeerStyleEnum beerStyle, PageRequest pageRequest, Boolean showInventoryOnHand);
 
+    // Same search without counting the total (SLICE paging).
+    BeerSliceList listBeerSlice(String beerName, BeerStyleEnum beerStyle, PageRequest pageRequest, Boolean showInventoryOnHand);
+
+    // Same search as pageSize beers after the cursor, ordered by id (KEYSET paging; null cursor = first page).
+    BeerSliceList listBeersAfter(String beerName, BeerStyleEnum beerStyle, UUID cursor, int pageSize, Boolean showInventoryOnHand);
+
+    // Beers whose name starts with namePrefix, ignoring case, optionally of one style.
+    BeerPagedList searchBeers(String namePrefix, BeerStyleEnum beerStyle, PageRequest pageRequest, Boolean showInventoryOnHand);
+
     // Get a beer by its ID (option to show inventory).
     BeerDto getById(UUID beerId, Boolean showInventoryOnHand);
 
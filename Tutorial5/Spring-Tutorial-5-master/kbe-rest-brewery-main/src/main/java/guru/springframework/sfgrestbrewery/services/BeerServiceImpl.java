@@ -6,15 +6,22 @@ import guru.springframework.sfgrestbrewery.web.controller.NotFoundException;
 import guru.springframework.sfgrestbrewery.web.mappers.BeerMapper;
 import guru.springframework.sfgrestbrewery.web.model.BeerDto;
 import guru.springframework.sfgrestbrewery.web.model.BeerPagedList;
+import guru.springframework.sfgrestbrewery.web.model.BeerSliceList;
 import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,89 +33,152 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BeerServiceImpl implements BeerService {
 
+    // Keyset pages are ordered by the primary key, so the cursor is just the last id.
+    private static final Sort KEYSET_ORDER = Sort.by("id");
+
     // Inject repository and mapper
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
+    private final BeerCacheEvictor beerCacheEvictor;
+    private final BeerCatalog beerCatalog;
+    private final BeerInventory beerInventory;
 
     /**
      * List beers with optional search by name/style.
-     * Uses caching when inventory is NOT requested.
+     * The page comes from the cache either way; inventory is laid over it when asked for.
      */
-    @Cacheable(cacheNames = "beerListCache", condition = "#showInventoryOnHand == false ")
     @Override
     public BeerPagedList listBeers(String beerName, BeerStyleEnum beerStyle, PageRequest pageRequest, Boolean showInventoryOnHand) {
+        BeerPagedList beerList = beerCatalog.listBeers(beerName, beerStyle, pageRequest);
+
+        if (!showInventoryOnHand) {
+            return beerList;
+        }
+
+        return new BeerPagedList(
+                beerInventory.withQuantityOnHand(beerList.getContent()),
+                beerList.getPageable(),
+                beerList.getTotalElements()
+        );
+    }
 
-        Page<Beer> beerPage;
+    /**
+     * List beers without counting them (SLICE paging).
+     * Not cached: it is for browsing deep pages, where the page cache rarely hits.
+     */
+    @Override
+    public BeerSliceList listBeerSlice(String beerName, BeerStyleEnum beerStyle, PageRequest pageRequest, Boolean showInventoryOnHand) {
+        // An offset position means "after the row at this offset"; the first page has none.
+        ScrollPosition position = pageRequest.getOffset() == 0
+                ? ScrollPosition.offset()
+                : ScrollPosition.offset(pageRequest.getOffset() - 1);
+        Window<Beer> window = findWindow(beerName, beerStyle, position,
+                pageRequest.getPageSize(), pageRequest.getSort());
+
+        return new BeerSliceList(toDtos(window, showInventoryOnHand), pageRequest, window.hasNext(), null);
+    }
+
+    /**
+     * List the beers after the cursor in id order (KEYSET paging).
+     * The query seeks straight to the cursor, so deep pages cost the same as the first.
+     */
+    @Override
+    public BeerSliceList listBeersAfter(String beerName, BeerStyleEnum beerStyle, UUID cursor, int pageSize, Boolean showInventoryOnHand) {
+        ScrollPosition position = cursor == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(Map.of("id", cursor));
+        Window<Beer> window = findWindow(beerName, beerStyle, position, pageSize, KEYSET_ORDER);
+
+        UUID nextCursor = window.hasNext() ? window.getContent().get(window.size() - 1).getId() : null;
+        return new BeerSliceList(toDtos(window, showInventoryOnHand),
+                PageRequest.of(0, pageSize, KEYSET_ORDER), window.hasNext(), nextCursor);
+    }
 
-        // Decide which search query to run
+    // Run the search matching the given filters, without a COUNT query
+    private Window<Beer> findWindow(String beerName, BeerStyleEnum beerStyle, ScrollPosition position, int limit, Sort sort) {
         if (!StringUtils.isEmpty(beerName) && !StringUtils.isEmpty(beerStyle)) {
-            beerPage = beerRepository.findAllByBeerNameAndBeerStyle(beerName, beerStyle, pageRequest);
+            return beerRepository.findAllByBeerNameAndBeerStyle(beerName, beerStyle, position, Limit.of(limit), sort);
         } else if (!StringUtils.isEmpty(beerName)) {
-            beerPage = beerRepository.findAllByBeerName(beerName, pageRequest);
+            return beerRepository.findAllByBeerName(beerName, position, Limit.of(limit), sort);
         } else if (!StringUtils.isEmpty(beerStyle)) {
-            beerPage = beerRepository.findAllByBeerStyle(beerStyle, pageRequest);
+            return beerRepository.findAllByBeerStyle(beerStyle, position, Limit.of(limit), sort);
         } else {
-            beerPage = beerRepository.findAll(pageRequest);
+            return beerRepository.findAllBy(position, Limit.of(limit), sort);
         }
+    }
 
-        // Map beers differently depending on inventory flag
-        if (showInventoryOnHand) {
-            return new BeerPagedList(
-                    beerPage.getContent()
-                            .stream()
-                            .map(beerMapper::beerToBeerDtoWithInventory)
-                            .collect(Collectors.toList()),
-                    beerPage.getPageable(),
-                    beerPage.getTotalElements()
-            );
-        }
+    /**
+     * Search beers by the start of their name, ignoring case (indexed by searchName).
+     * Not cached: the prefixes are too varied for the page cache to help.
+     */
+    @Override
+    public BeerPagedList searchBeers(String namePrefix, BeerStyleEnum beerStyle, PageRequest pageRequest, Boolean showInventoryOnHand) {
+        String searchNamePrefix = Beer.toSearchName(namePrefix);
 
-        return new BeerPagedList(
-                beerPage.getContent()
-                        .stream()
-                        .map(beerMapper::beerToBeerDto)
-                        .collect(Collectors.toList()),
-                beerPage.getPageable(),
-                beerPage.getTotalElements()
-        );
+        Page<Beer> beerPage = beerStyle != null
+                ? beerRepository.findAllByBeerStyleAndSearchNameStartingWith(beerStyle, searchNamePrefix, pageRequest)
+                : beerRepository.findAllBySearchNameStartingWith(searchNamePrefix, pageRequest);
+
+        return new BeerPagedList(toDtos(beerPage.getContent(), showInventoryOnHand),
+                beerPage.getPageable(), beerPage.getTotalElements());
+    }
+
+    private List<BeerDto> toDtos(Window<Beer> window, boolean showInventoryOnHand) {
+        return toDtos(window.getContent(), showInventoryOnHand);
+    }
+
+    private List<BeerDto> toDtos(List<Beer> beers, boolean showInventoryOnHand) {
+        return beers
+                .stream()
+                .map(showInventoryOnHand ? beerMapper::beerToBeerDtoWithInventory : beerMapper::beerToBeerDto)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Get beer by ID (cached when inventory is not shown)
+     * Get beer by ID (cached, with inventory laid over it when asked for)
      */
-    @Cacheable(cacheNames = "beerCache", key = "#beerId", condition = "#showInventoryOnHand == false ")
     @Override
     public BeerDto getById(UUID beerId, Boolean showInventoryOnHand) {
-        Beer beer = beerRepository.findById(beerId).orElseThrow(NotFoundException::new);
+        BeerDto beer = beerCatalog.getById(beerId);
 
-        return showInventoryOnHand ?
-                beerMapper.beerToBeerDtoWithInventory(beer) :
-                beerMapper.beerToBeerDto(beer);
+        return showInventoryOnHand ? beerInventory.withQuantityOnHand(beer) : beer;
     }
 
     /**
      * Save a new beer.
+     * Evicts its UPC (a miss may be cached) and the list pages it now belongs on,
+     * and records its starting stock.
      */
     @Override
     public BeerDto saveNewBeer(BeerDto beerDto) {
-        return beerMapper.beerToBeerDto(
-                beerRepository.save(beerMapper.beerDtoToBeer(beerDto))
-        );
+        Beer saved = beerRepository.save(beerMapper.beerDtoToBeer(beerDto));
+        beerCacheEvictor.beerChanged(saved);
+        beerInventory.quantityChanged(saved.getId(), saved.getQuantityOnHand());
+        return beerMapper.beerToBeerDto(saved);
     }
 
     /**
      * Update existing beer fields.
+     * Evicts the beer, and its UPCs and list pages both before and after the change.
      */
     @Override
     public BeerDto updateBeer(UUID beerId, BeerDto beerDto) {
         Beer beer = beerRepository.findById(beerId).orElseThrow(NotFoundException::new);
+        Beer before = Beer.builder()
+                .id(beer.getId())
+                .beerName(beer.getBeerName())
+                .beerStyle(beer.getBeerStyle())
+                .upc(beer.getUpc())
+                .build();
 
         beer.setBeerName(beerDto.getBeerName());
         beer.setBeerStyle(BeerStyleEnum.PILSNER.valueOf(beerDto.getBeerStyle()));
         beer.setPrice(beerDto.getPrice());
         beer.setUpc(beerDto.getUpc());
 
-        return beerMapper.beerToBeerDto(beerRepository.save(beer));
+        Beer saved = beerRepository.save(beer);
+        beerCacheEvictor.beerChanged(before, saved);
+        return beerMapper.beerToBeerDto(saved);
     }
 
     /**
@@ -122,9 +192,12 @@ public class BeerServiceImpl implements BeerService {
 
     /**
      * Delete beer by ID.
+     * Looks the beer up first so its UPC and list pages can be evicted too.
      */
     @Override
     public void deleteBeerById(UUID beerId) {
+        Beer beer = beerRepository.findById(beerId).orElse(null);
         beerRepository.deleteById(beerId);
+        beerCacheEvictor.beerChanged(beer != null ? beer : Beer.builder().id(beerId).build());
     }
 }
\ No newline at end of file
@@ -4,8 +4,10 @@ import guru.springframework.sfgrestbrewery.services.BeerService;
 import guru.springframework.sfgrestbrewery.web.model.BeerDto;
 import guru.springframework.sfgrestbrewery.web.model.BeerPagedList;
 import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import guru.springframework.sfgrestbrewery.web.model.PagingMode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -29,13 +31,21 @@ public class BeerController {
     // Injecting BeerService
     private final BeerService beerService;
 
+    /**
+     * paging=PAGE (default) returns a BeerPagedList with totals, SLICE a BeerSliceList
+     * without them (no COUNT query), and KEYSET a BeerSliceList of the beers after
+     * cursor in id order, whose nextCursor fetches the next page; pageNumber is
+     * ignored in KEYSET mode.
+     */
     @GetMapping(produces = { "application/json" }, path = "beer")
-    public ResponseEntity<BeerPagedList> listBeers(
+    public ResponseEntity<Slice<BeerDto>> listBeers(
             @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
             @RequestParam(value = "pageSize", required = false) Integer pageSize,
             @RequestParam(value = "beerName", required = false) String beerName,
             @RequestParam(value = "beerStyle", required = false) BeerStyleEnum beerStyle,
-            @RequestParam(value = "showInventoryOnHand", required = false) Boolean showInventoryOnHand){
+            @RequestParam(value = "showInventoryOnHand", required = false) Boolean showInventoryOnHand,
+            @RequestParam(value = "paging", required = false) PagingMode paging,
+            @RequestParam(value = "cursor", required = false) UUID cursor){
 
         // Default inventory flag to false
         if (showInventoryOnHand == null) {
@@ -52,14 +62,44 @@ public class BeerController {
             pageSize = DEFAULT_PAGE_SIZE;
         }
 
-        // Get paged list of beers from service
-        BeerPagedList beerList = beerService.listBeers(
-                beerName, beerStyle, PageRequest.of(pageNumber, pageSize), showInventoryOnHand);
+        // Get the list of beers from service, counted or not
+        Slice<BeerDto> beerList = switch (paging == null ? PagingMode.PAGE : paging) {
+            case PAGE -> beerService.listBeers(
+                    beerName, beerStyle, PageRequest.of(pageNumber, pageSize), showInventoryOnHand);
+            case SLICE -> beerService.listBeerSlice(
+                    beerName, beerStyle, PageRequest.of(pageNumber, pageSize), showInventoryOnHand);
+            case KEYSET -> beerService.listBeersAfter(
+                    beerName, beerStyle, cursor, pageSize, showInventoryOnHand);
+        };
 
         // Return list with status 200 OK
         return new ResponseEntity<>(beerList, HttpStatus.OK);
     }
 
+    @GetMapping(produces = { "application/json" }, path = "beer/search")
+    public ResponseEntity<BeerPagedList> searchBeers(
+            @RequestParam(value = "name") String name,
+            @RequestParam(value = "beerStyle", required = false) BeerStyleEnum beerStyle,
+            @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "showInventoryOnHand", required = false) Boolean showInventoryOnHand){
+
+        // Same defaults as listBeers
+        if (showInventoryOnHand == null) {
+            showInventoryOnHand = false;
+        }
+        if (pageNumber == null || pageNumber < 0){
+            pageNumber = DEFAULT_PAGE_NUMBER;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+
+        // Beers whose name starts with "name", ignoring case
+        return new ResponseEntity<>(beerService.searchBeers(
+                name, beerStyle, PageRequest.of(pageNumber, pageSize), showInventoryOnHand), HttpStatus.OK);
+    }
+
     @GetMapping("beer/{beerId}")
     public ResponseEntity<BeerDto> getBeerById(
             @PathVariable("beerId") UUID beerId,
@@ -3,16 +3,19 @@ package guru.springframework.sfgrestbrewery.web.mappers;
 import guru.springframework.sfgrestbrewery.domain.Beer;
 import guru.springframework.sfgrestbrewery.web.model.BeerDto;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring", uses = {DateMapper.class})
 public interface BeerMapper {
 
     // Convert entity → DTO (without inventory)
+    @Mapping(target = "quantityOnHand", ignore = true)
     BeerDto beerToBeerDto(Beer beer);
 
     // Convert entity → DTO (includes inventory field)
     BeerDto beerToBeerDtoWithInventory(Beer beer);
 
-    // Convert DTO → entity
+    // Convert DTO → entity (the search name is derived from the beer name)
+    @Mapping(target = "searchName", ignore = true)
     Beer beerDtoToBeer(BeerDto dto);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package guru.springframework.sfgrestbrewery.web.model;
+
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A page of beers without a total count, for the SLICE and KEYSET paging modes.
+ *
+ * "last" says whether there is another page. In KEYSET mode nextCursor is the value
+ * to pass as cursor for that page; it is null on the last page and in SLICE mode.
+ */
+public class BeerSliceList extends SliceImpl<BeerDto> implements Serializable {
+
+    static final long serialVersionUID = -4409212466436862437L;
+
+    private final UUID nextCursor;
+
+    // Constructor used by Jackson when deserializing the JSON
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public BeerSliceList(@JsonProperty("content") List<BeerDto> content,
+                         @JsonProperty("number") int number,
+                         @JsonProperty("size") int size,
+                         @JsonProperty("pageable") JsonNode pageable,
+                         @JsonProperty("last") boolean last,
+                         @JsonProperty("sort") JsonNode sort,
+                         @JsonProperty("first") boolean first,
+                         @JsonProperty("numberOfElements") int numberOfElements,
+                         @JsonProperty("nextCursor") UUID nextCursor) {
+
+        super(content, PageRequest.of(number, size), !last);
+        this.nextCursor = nextCursor;
+    }
+
+    // Constructor for building a slice in the service
+    public BeerSliceList(List<BeerDto> content, Pageable pageable, boolean hasNext, UUID nextCursor) {
+        super(content, pageable, hasNext);
+        this.nextCursor = nextCursor;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public UUID getNextCursor() {
+        return nextCursor;
+    }
+}
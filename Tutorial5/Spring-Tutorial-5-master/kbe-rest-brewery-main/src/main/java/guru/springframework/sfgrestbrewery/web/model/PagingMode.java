@@ -0,0 +1,9 @@
+package guru.springframework.sfgrestbrewery.web.model;
+
+
+// How GET /api/v1/beer pages through the results
+public enum PagingMode {
+    PAGE,   // pageNumber/pageSize with totalElements and totalPages (runs a COUNT query)
+    SLICE,  // pageNumber/pageSize with only a "last" flag, no COUNT query
+    KEYSET  // pageSize beers after the cursor, ordered by id; cost doesn't grow with depth
+}
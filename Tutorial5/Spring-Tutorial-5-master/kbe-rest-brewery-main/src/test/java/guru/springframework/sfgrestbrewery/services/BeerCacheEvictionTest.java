@@ -0,0 +1,167 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.config.CacheConfig;
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Under READ COMMITTED, H2 can still return a row's old version just after another
+// connection's commit has returned, which would look like a stale cache here.
+@SpringBootTest(properties = "spring.datasource.hikari.transaction-isolation=TRANSACTION_REPEATABLE_READ")
+public class BeerCacheEvictionTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 100);
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    Beer beer;
+
+    @BeforeEach
+    public void setUp() {
+        beer = beerRepository.save(Beer.builder()
+                .beerName("Eviction Ale " + UUID.randomUUID())
+                .beerStyle(BeerStyleEnum.ALE)
+                .upc(UUID.randomUUID().toString())
+                .price(new BigDecimal("1.00"))
+                .quantityOnHand(10)
+                .build());
+    }
+
+    @Test
+    public void updateEvictsTheBeerByIdAndUpc() {
+        String oldUpc = beer.getUpc();
+        beerService.getById(beer.getId(), false);
+        beerService.getByUpc(oldUpc);
+
+        BeerDto update = dto(new BigDecimal("2.50"));
+        update.setUpc(UUID.randomUUID().toString());
+        beerService.updateBeer(beer.getId(), update);
+
+        assertThat(beerService.getById(beer.getId(), false).getPrice()).isEqualByComparingTo("2.50");
+        assertThat(beerService.getByUpc(update.getUpc()).getPrice()).isEqualByComparingTo("2.50");
+        assertThat(beerService.getByUpc(oldUpc)).isNull();
+    }
+
+    @Test
+    public void updateEvictsOnlyListPagesTheBeerCanAppearOn() {
+        beerService.listBeers(null, BeerStyleEnum.ALE, FIRST_PAGE, false);
+        beerService.listBeers(null, BeerStyleEnum.LAGER, FIRST_PAGE, false);
+        beerService.listBeers(null, null, FIRST_PAGE, false);
+        beerService.listBeers("Some Other Beer", null, FIRST_PAGE, false);
+
+        beerService.updateBeer(beer.getId(), dto(new BigDecimal("3.00")));
+
+        Cache lists = cacheManager.getCache(CacheConfig.BEER_LIST_CACHE);
+        assertThat(lists.get(BeerListCacheKey.of(null, BeerStyleEnum.ALE, FIRST_PAGE))).isNull();
+        assertThat(lists.get(BeerListCacheKey.of(null, null, FIRST_PAGE))).isNull();
+        assertThat(lists.get(BeerListCacheKey.of(null, BeerStyleEnum.LAGER, FIRST_PAGE))).isNotNull();
+        assertThat(lists.get(BeerListCacheKey.of("Some Other Beer", null, FIRST_PAGE))).isNotNull();
+    }
+
+    @Test
+    public void saveEvictsACachedMissForItsUpc() {
+        String upc = UUID.randomUUID().toString();
+        assertThat(beerService.getByUpc(upc)).isNull();
+
+        BeerDto newBeer = dto(new BigDecimal("4.00"));
+        newBeer.setUpc(upc);
+        beerService.saveNewBeer(newBeer);
+
+        assertThat(beerService.getByUpc(upc)).isNotNull();
+    }
+
+    @Test
+    public void deleteEvictsTheBeer() {
+        beerService.getByUpc(beer.getUpc());
+        beerService.listBeers(beer.getBeerName(), null, FIRST_PAGE, false);
+
+        beerService.deleteBeerById(beer.getId());
+
+        assertThat(beerService.getByUpc(beer.getUpc())).isNull();
+        assertThat(beerService.listBeers(beer.getBeerName(), null, FIRST_PAGE, false).getContent()).isEmpty();
+    }
+
+    /**
+     * Readers hammer all three caches while a writer raises the price. Prices only go
+     * up, so a read that starts after an update has returned must see at least that
+     * price; anything lower is a stale value put back into the cache.
+     */
+    @Test
+    public void readsNeverSeeAnOlderPriceThanTheLastCompletedWrite() throws Exception {
+        AtomicInteger committed = new AtomicInteger(100);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(6);
+        List<Future<Integer>> stale = new ArrayList<>();
+
+        for (int r = 0; r < 6; r++) {
+            int kind = r % 3;
+            stale.add(readers.submit(() -> {
+                int staleReads = 0;
+                while (writing.get()) {
+                    int expected = committed.get();
+                    BigDecimal price = switch (kind) {
+                        case 0 -> beerService.getById(beer.getId(), false).getPrice();
+                        case 1 -> beerService.getByUpc(beer.getUpc()).getPrice();
+                        default -> beerService.listBeers(beer.getBeerName(), BeerStyleEnum.ALE, FIRST_PAGE, false)
+                                .getContent().get(0).getPrice();
+                    };
+                    if (price.compareTo(BigDecimal.valueOf(expected, 2)) < 0) {
+                        staleReads++;
+                    }
+                }
+                return staleReads;
+            }));
+        }
+
+        for (int cents = 101; cents <= 400; cents++) {
+            BeerDto update = dto(BigDecimal.valueOf(cents, 2));
+            update.setUpc(beer.getUpc());
+            beerService.updateBeer(beer.getId(), update);
+            committed.set(cents);
+        }
+        writing.set(false);
+
+        for (Future<Integer> reader : stale) {
+            assertThat(reader.get(30, TimeUnit.SECONDS)).isZero();
+        }
+        readers.shutdown();
+        assertThat(beerService.getById(beer.getId(), false).getPrice()).isEqualByComparingTo("4.00");
+    }
+
+    private BeerDto dto(BigDecimal price) {
+        return BeerDto.builder()
+                .beerName(beer.getBeerName())
+                .beerStyle(beer.getBeerStyle().name())
+                .upc(beer.getUpc())
+                .price(price)
+                .build();
+    }
+}
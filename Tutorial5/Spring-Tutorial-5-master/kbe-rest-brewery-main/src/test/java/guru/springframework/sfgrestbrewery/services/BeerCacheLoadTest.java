@@ -0,0 +1,119 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.mappers.BeerMapper;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+@SpringBootTest(properties = "logging.level.guru.springframework.sfgrestbrewery=info")
+public class BeerCacheLoadTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerMapper beerMapper;
+
+    /**
+     * Runs a large, varied query mix against the caches and prints used heap after
+     * each round, which should level off once the caches are full. Run it with
+     * -Dbrewery.cache.load.queries=300000 (beers are created at 1/10th of that).
+     * No spies here: Mockito would keep every repository call on the heap.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "brewery.cache.load.queries", matches = "\\d+")
+    public void heapStaysFlatUnderAVariedQueryMix() {
+        int queries = Integer.getInteger("brewery.cache.load.queries");
+        List<UUID> ids = saveBeers(queries / 10);
+        List<String> upcs = new ArrayList<>();
+        beerRepository.findAll().forEach(beer -> upcs.add(beer.getUpc()));
+        BeerStyleEnum[] styles = BeerStyleEnum.values();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Random random = new Random(42);
+
+        for (int round = 1; round <= 10; round++) {
+            for (int i = 0; i < queries / 10; i++) {
+                switch (random.nextInt(3)) {
+                    case 0 -> beerService.getById(ids.get(random.nextInt(ids.size())), false);
+                    case 1 -> beerService.getByUpc(upcs.get(random.nextInt(upcs.size())));
+                    default -> beerService.listBeers(null, styles[random.nextInt(styles.length)],
+                            PageRequest.of(random.nextInt(200), 25), false);
+                }
+            }
+            System.gc();
+            System.out.printf("round %2d: used heap %6.1f MB%n", round,
+                    memory.getHeapMemoryUsage().getUsed() / 1e6);
+        }
+    }
+
+    /**
+     * Times showInventoryOnHand=true reads against what they used to cost: a database
+     * query per call, mapped with beerToBeerDtoWithInventory. Run it with
+     * -Dbrewery.cache.inventory.reads=20000.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "brewery.cache.inventory.reads", matches = "\\d+")
+    public void inventoryReadsAreServedFromMemory() {
+        int reads = Integer.getInteger("brewery.cache.inventory.reads");
+        List<UUID> ids = saveBeers(500);
+        BeerStyleEnum[] styles = BeerStyleEnum.values();
+        Random random = new Random(42);
+
+        for (int pass = 0; pass < 2; pass++) {
+            // The first pass warms the JIT, connection pool and caches.
+            long uncachedById = time(reads, () -> beerMapper.beerToBeerDtoWithInventory(
+                    beerRepository.findById(ids.get(random.nextInt(ids.size()))).orElseThrow()));
+            long cachedById = time(reads, () -> beerService.getById(ids.get(random.nextInt(ids.size())), true));
+            long uncachedList = time(reads, () -> beerRepository.findAllByBeerStyle(
+                    styles[random.nextInt(styles.length)], PageRequest.of(random.nextInt(4), 25))
+                    .map(beerMapper::beerToBeerDtoWithInventory));
+            long cachedList = time(reads, () -> beerService.listBeers(null, styles[random.nextInt(styles.length)],
+                    PageRequest.of(random.nextInt(4), 25), true));
+
+            System.out.printf("getById:   %8.1f us -> %6.1f us per read%n", uncachedById / 1e3, cachedById / 1e3);
+            System.out.printf("listBeers: %8.1f us -> %6.1f us per read%n", uncachedList / 1e3, cachedList / 1e3);
+        }
+    }
+
+    // Average nanoseconds per call.
+    private static long time(int calls, Runnable call) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            call.run();
+        }
+        return (System.nanoTime() - start) / calls;
+    }
+
+    private List<UUID> saveBeers(int count) {
+        BeerStyleEnum[] styles = BeerStyleEnum.values();
+        List<Beer> beers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            beers.add(Beer.builder()
+                    .beerName("Load Beer " + i)
+                    .beerStyle(styles[i % styles.length])
+                    .upc(UUID.randomUUID().toString())
+                    .price(new BigDecimal("9.99"))
+                    .quantityOnHand(i)
+                    .build());
+        }
+        List<UUID> ids = new ArrayList<>(count);
+        beerRepository.saveAll(beers).forEach(beer -> ids.add(beer.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,175 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.bootstrap.BeerLoader;
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "logging.level.guru.springframework.sfgrestbrewery=info")
+public class BeerIndexTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void upcsAreUnique() {
+        Beer duplicate = beer("Duplicate UPC", BeerStyleEnum.ALE);
+        duplicate.setUpc(BeerLoader.BEER_1_UPC);
+
+        assertThatThrownBy(() -> beerRepository.save(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    public void searchIgnoresCaseAndMatchesNamePrefixes() {
+        String prefix = "Hoppy " + UUID.randomUUID();
+        beerRepository.save(beer(prefix + " Trails", BeerStyleEnum.IPA));
+        beerRepository.save(beer(prefix.toUpperCase() + " Hour", BeerStyleEnum.ALE));
+        beerRepository.save(beer("Not " + prefix, BeerStyleEnum.IPA));
+
+        assertThat(beerService.searchBeers(prefix.toLowerCase(), null, PageRequest.of(0, 10), false).getContent())
+                .extracting(BeerDto::getBeerName)
+                .containsExactlyInAnyOrder(prefix + " Trails", prefix.toUpperCase() + " Hour");
+        assertThat(beerService.searchBeers(prefix, BeerStyleEnum.IPA, PageRequest.of(0, 10), false).getContent())
+                .extracting(BeerDto::getBeerName)
+                .containsExactly(prefix + " Trails");
+    }
+
+    @Test
+    public void searchFollowsRenames() {
+        Beer beer = beerRepository.save(beer("Old Name " + UUID.randomUUID(), BeerStyleEnum.STOUT));
+        String newName = "New Name " + UUID.randomUUID();
+
+        beerService.updateBeer(beer.getId(), BeerDto.builder()
+                .beerName(newName)
+                .beerStyle(beer.getBeerStyle().name())
+                .upc(beer.getUpc())
+                .price(beer.getPrice())
+                .build());
+
+        assertThat(beerService.searchBeers(newName.toUpperCase(), null, PageRequest.of(0, 10), false).getContent())
+                .extracting(BeerDto::getId).containsExactly(beer.getId());
+        assertThat(beerService.searchBeers(beer.getBeerName(), null, PageRequest.of(0, 10), false).getContent())
+                .isEmpty();
+    }
+
+    @Test
+    public void lookupsUseTheIndexes() {
+        assertThat(plan("select * from beer where upc = 'x'")).containsIgnoringCase("uk_beer_upc");
+        assertThat(plan("select * from beer where beer_name = 'x'")).containsIgnoringCase("ix_beer_name");
+        assertThat(plan("select * from beer where beer_style = 1")).containsIgnoringCase("ix_beer_style_name");
+        assertThat(plan("select * from beer where beer_style = 1 and beer_name = 'x'"))
+                .containsIgnoringCase("ix_beer_style_name");
+        assertThat(plan("select * from beer where search_name like 'x%'")).containsIgnoringCase("ix_beer_search_name");
+    }
+
+    /**
+     * Times each lookup as the table grows tenfold from 10k beers up to
+     * -Dbrewery.index.rows (e.g. 1000000; 10M beers need more heap than in-memory H2
+     * gets here), then again at the largest size with the indexes dropped.
+     * Indexed lookups should stay flat; the dropped ones grow with the table.
+     */
+    @Test
+    @DirtiesContext
+    @EnabledIfSystemProperty(named = "brewery.index.rows", matches = "\\d+")
+    public void indexedLookupsStayFlatAsTheTableGrows() {
+        int maxRows = Integer.getInteger("brewery.index.rows");
+        int rows = 0;
+
+        System.out.printf("%14s %9s %9s %9s %10s %9s   (us per lookup)%n",
+                "beers", "upc", "name", "style", "style+name", "prefix");
+        for (int size = 10_000; size <= maxRows; size *= 10) {
+            jdbcTemplate.update("""
+                    insert into beer (id, version, beer_name, search_name, beer_style, upc, quantity_on_hand,
+                                      price, created_date, last_modified_date)
+                    select random_uuid(), 0, 'Bench Beer ' || x, 'bench beer ' || x, mod(x, 10), 'bench-' || x,
+                           mod(x, 5000), 9.99, current_timestamp, current_timestamp
+                    from system_range(?, ?)""", rows + 1, size);
+            rows = size;
+            timeLookups(Integer.toString(rows), rows);
+        }
+
+        jdbcTemplate.execute("alter table beer drop constraint uk_beer_upc");
+        jdbcTemplate.execute("drop index ix_beer_name");
+        jdbcTemplate.execute("drop index ix_beer_style_name");
+        jdbcTemplate.execute("drop index ix_beer_search_name");
+        timeLookups(rows + " (none)", rows);
+    }
+
+    private void timeLookups(String label, int rows) {
+        // A different beer every call: H2 hands back the previous result for a repeated
+        // query on an unchanged table, which would hide the lookup entirely.
+        Random random = new Random(42);
+        IntSupplier beer = () -> 1 + random.nextInt(rows);
+
+        for (int pass = 0; pass < 3; pass++) {
+            // The first passes warm the JIT and connection pool; only the last is printed.
+            double upc = microsPerCall(() -> beerRepository.findByUpc("bench-" + beer.getAsInt()));
+            double name = microsPerCall(() -> beerRepository.findAllByBeerName(
+                    "Bench Beer " + beer.getAsInt(), PageRequest.of(0, 25)));
+            double style = microsPerCall(() -> beerRepository.findAllByBeerStyle(
+                    BeerStyleEnum.values()[random.nextInt(10)], ScrollPosition.offset(random.nextInt(100)),
+                    Limit.of(25), Sort.unsorted()));
+            double styleName = microsPerCall(() -> {
+                int x = beer.getAsInt();
+                beerRepository.findAllByBeerNameAndBeerStyle("Bench Beer " + x,
+                        BeerStyleEnum.values()[x % 10], PageRequest.of(0, 25));
+            });
+            // 4 digits: at 1M beers this matches x, x0-x9 and x00-x99
+            double prefix = microsPerCall(() -> beerRepository.findAllBySearchNameStartingWith(
+                    Beer.toSearchName("Bench Beer " + (1000 + random.nextInt(9000))), PageRequest.of(0, 25)));
+            if (pass == 2) {
+                System.out.printf("%14s %9.1f %9.1f %9.1f %10.1f %9.1f%n", label, upc, name, style, styleName, prefix);
+            }
+        }
+    }
+
+    private static double microsPerCall(Runnable call) {
+        int calls = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            call.run();
+        }
+        return (System.nanoTime() - start) / 1e3 / calls;
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    private static Beer beer(String name, BeerStyleEnum style) {
+        return Beer.builder()
+                .beerName(name)
+                .beerStyle(style)
+                .upc(UUID.randomUUID().toString())
+                .price(new BigDecimal("6.50"))
+                .quantityOnHand(12)
+                .build();
+    }
+}
@@ -0,0 +1,167 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import guru.springframework.sfgrestbrewery.config.CacheConfig;
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import guru.springframework.sfgrestbrewery.web.model.BeerSliceList;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "logging.level.guru.springframework.sfgrestbrewery=info")
+public class BeerPagingTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void sliceHasTheSameBeersAsTheCountedPage() {
+        saveBeers("Slice Beer", 30);
+
+        for (int page = 0; page < 4; page++) {
+            PageRequest pageRequest = PageRequest.of(page, 10);
+            List<BeerDto> counted = beerService.listBeers("Slice Beer", null, pageRequest, false).getContent();
+            BeerSliceList slice = beerService.listBeerSlice("Slice Beer", null, pageRequest, false);
+
+            assertThat(slice.getContent()).extracting(BeerDto::getId)
+                    .containsExactlyInAnyOrderElementsOf(counted.stream().map(BeerDto::getId).toList());
+            assertThat(slice.hasNext()).isEqualTo(page < 2);
+            assertThat(slice.getNextCursor()).isNull();
+        }
+    }
+
+    @Test
+    public void keysetVisitsEveryMatchingBeerOnceInIdOrder() {
+        List<UUID> saved = saveBeers("Keyset Beer", 23);
+
+        List<UUID> visited = new ArrayList<>();
+        UUID cursor = null;
+        int pages = 0;
+        do {
+            BeerSliceList slice = beerService.listBeersAfter("Keyset Beer", null, cursor, 5, true);
+            slice.getContent().forEach(beer -> {
+                assertThat(beer.getQuantityOnHand()).isNotNull();
+                visited.add(beer.getId());
+            });
+            cursor = slice.getNextCursor();
+            assertThat(cursor == null).isEqualTo(!slice.hasNext());
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(saved);
+        // The database orders UUIDs by their bytes, like their text; UUID.compareTo doesn't.
+        assertThat(visited).isSortedAccordingTo(Comparator.comparing(UUID::toString));
+    }
+
+    @Test
+    public void keysetAppliesTheStyleFilter() {
+        BeerSliceList slice = beerService.listBeersAfter(null, BeerStyleEnum.PALE_ALE, null, 50, false);
+
+        assertThat(slice.getContent()).isNotEmpty()
+                .allSatisfy(beer -> assertThat(beer.getBeerStyle()).isEqualTo("PALE_ALE"));
+    }
+
+    /**
+     * Compares page 1 with page 10,000 (25 beers a page) in each paging mode over a
+     * large table, for all beers and for one style (a tenth of them, so its deepest
+     * page is shallower). Run it with -Dbrewery.paging.beers=1000000; 1M beers need
+     * about 2 GB of heap, e.g. -DargLine=-Xmx3g. PAGE mode is timed with the page
+     * cache cleared, i.e. as a cache miss.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "brewery.paging.beers", matches = "\\d+")
+    public void deepPagesCostTheSameWithKeysetPaging() {
+        int beers = Integer.getInteger("brewery.paging.beers");
+        jdbcTemplate.update("""
+                insert into beer (id, version, beer_name, beer_style, upc, quantity_on_hand, price,
+                                  created_date, last_modified_date)
+                select random_uuid(), 0, 'Bench Beer ' || x, mod(x, 10), 'bench-' || x, mod(x, 5000), 9.99,
+                       current_timestamp, current_timestamp
+                from system_range(1, ?)""", beers);
+
+        for (int pass = 0; pass < 2; pass++) {
+            // The first pass warms the JIT and connection pool.
+            compareFirstAndDeepPage(null, Math.min(9_999, beers / PAGE_SIZE - 1));
+            compareFirstAndDeepPage(BeerStyleEnum.IPA, Math.min(9_999, beers / 10 / PAGE_SIZE - 1));
+        }
+    }
+
+    private static final int PAGE_SIZE = 25;
+
+    private void compareFirstAndDeepPage(BeerStyleEnum style, int deepPage) {
+        // The keyset cursor for the deep page is the id of the last beer on the page before.
+        UUID deepCursor = jdbcTemplate.queryForObject(
+                "select id from beer where ? is null or beer_style = ? order by id offset ? rows fetch next 1 rows only",
+                UUID.class, style == null ? null : style.ordinal(), style == null ? null : style.ordinal(),
+                (long) deepPage * PAGE_SIZE - 1);
+
+        System.out.printf("%s, page 1 vs page %,d:%n", style == null ? "all beers" : style, deepPage + 1);
+        report("PAGE", () -> {
+            cacheManager.getCache(CacheConfig.BEER_LIST_CACHE).clear();
+            return beerService.listBeers(null, style, PageRequest.of(0, PAGE_SIZE), false);
+        }, () -> {
+            cacheManager.getCache(CacheConfig.BEER_LIST_CACHE).clear();
+            return beerService.listBeers(null, style, PageRequest.of(deepPage, PAGE_SIZE), false);
+        });
+        report("SLICE",
+                () -> beerService.listBeerSlice(null, style, PageRequest.of(0, PAGE_SIZE), false),
+                () -> beerService.listBeerSlice(null, style, PageRequest.of(deepPage, PAGE_SIZE), false));
+        report("KEYSET",
+                () -> beerService.listBeersAfter(null, style, null, PAGE_SIZE, false),
+                () -> beerService.listBeersAfter(null, style, deepCursor, PAGE_SIZE, false));
+    }
+
+    private static void report(String mode, Supplier<?> firstPage, Supplier<?> deepPage) {
+        System.out.printf("  %-6s %9.2f ms  %9.2f ms%n", mode, millisPerCall(firstPage), millisPerCall(deepPage));
+    }
+
+    private static double millisPerCall(Supplier<?> call) {
+        int calls = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            call.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / calls;
+    }
+
+    private List<UUID> saveBeers(String name, int count) {
+        List<Beer> beers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            beers.add(Beer.builder()
+                    .beerName(name)
+                    .beerStyle(BeerStyleEnum.ALE)
+                    .upc(UUID.randomUUID().toString())
+                    .price(new BigDecimal("5.00"))
+                    .quantityOnHand(i)
+                    .build());
+        }
+        List<UUID> ids = new ArrayList<>(count);
+        beerRepository.saveAll(beers).forEach(beer -> ids.add(beer.getId()));
+        return ids;
+    }
+}
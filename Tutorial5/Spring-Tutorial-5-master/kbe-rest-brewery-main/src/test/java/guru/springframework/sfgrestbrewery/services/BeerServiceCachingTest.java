@@ -0,0 +1,157 @@
+package guru.springframework.sfgrestbrewery.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import guru.springframework.sfgrestbrewery.bootstrap.BeerLoader;
+import guru.springframework.sfgrestbrewery.config.CacheConfig;
+import guru.springframework.sfgrestbrewery.domain.Beer;
+import guru.springframework.sfgrestbrewery.repositories.BeerRepository;
+import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "sfg.brewery.cache.specs[beerCache].maximum-size=5",
+        "sfg.brewery.cache.specs[beerListCache].maximum-size=20",
+        "sfg.brewery.cache.specs[beerInventory].refresh-after-write=200ms"
+})
+public class BeerServiceCachingTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    BeerInventory beerInventory;
+
+    @SpyBean
+    BeerRepository beerRepository;
+
+    @Test
+    public void hotUpcsAreWarmedAtStartup() {
+        assertThat(cacheManager.getCache(CacheConfig.BEER_UPC_CACHE).get(BeerLoader.BEER_1_UPC)).isNotNull();
+        assertThat(cacheManager.getCache(CacheConfig.BEER_UPC_CACHE).get(BeerLoader.BEER_2_UPC)).isNotNull();
+    }
+
+    @Test
+    public void repeatedLookupsAreServedFromTheCache() {
+        UUID beerId = beerRepository.findByUpc(BeerLoader.BEER_1_UPC).getId();
+
+        beerService.getById(beerId, false);
+        beerService.getById(beerId, false);
+
+        verify(beerRepository, times(1)).findById(beerId);
+    }
+
+    @Test
+    public void inventoryReadsAreServedFromTheCache() {
+        Beer beer = beerRepository.findByUpc(BeerLoader.BEER_2_UPC);
+
+        assertThat(beerService.getById(beer.getId(), true).getQuantityOnHand()).isEqualTo(beer.getQuantityOnHand());
+        assertThat(beerService.getById(beer.getId(), true).getQuantityOnHand()).isEqualTo(beer.getQuantityOnHand());
+        beerService.listBeers(null, BeerStyleEnum.IPA, PageRequest.of(0, 10), true);
+        beerService.listBeers(null, BeerStyleEnum.IPA, PageRequest.of(0, 10), true);
+
+        verify(beerRepository, times(1)).findById(beer.getId());
+        verify(beerRepository, times(1)).findAllByBeerStyle(BeerStyleEnum.IPA, PageRequest.of(0, 10));
+    }
+
+    @Test
+    public void inventoryIsLaidOverTheCachedBeerWithoutChangingIt() {
+        UUID beerId = saveBeers(1).get(0);
+
+        assertThat(beerService.getById(beerId, false).getQuantityOnHand()).isNull();
+        assertThat(beerService.getById(beerId, true).getQuantityOnHand()).isEqualTo(0);
+
+        beerInventory.quantityChanged(beerId, 42);
+
+        assertThat(beerService.getById(beerId, true).getQuantityOnHand()).isEqualTo(42);
+        assertThat(beerService.listBeers("Test Beer 0", null, PageRequest.of(0, 100), true).getContent())
+                .filteredOn(beer -> beer.getId().equals(beerId))
+                .extracting(BeerDto::getQuantityOnHand).containsExactly(42);
+        assertThat(beerService.getById(beerId, false).getQuantityOnHand()).isNull();
+        verify(beerRepository, times(1)).findById(beerId);
+    }
+
+    @Test
+    public void inventoryPicksUpStockChangedInTheDatabase() throws InterruptedException {
+        UUID beerId = saveBeers(1).get(0);
+        assertThat(beerService.getById(beerId, true).getQuantityOnHand()).isEqualTo(0);
+
+        Beer beer = beerRepository.findById(beerId).orElseThrow();
+        beer.setQuantityOnHand(7);
+        beerRepository.save(beer);
+
+        // The first read after refresh-after-write still gets the old level and
+        // triggers the reload; later reads see the new one.
+        long deadline = System.currentTimeMillis() + 5000;
+        Integer quantityOnHand;
+        do {
+            Thread.sleep(50);
+            quantityOnHand = beerService.getById(beerId, true).getQuantityOnHand();
+        } while (quantityOnHand != 7 && System.currentTimeMillis() < deadline);
+
+        assertThat(quantityOnHand).isEqualTo(7);
+    }
+
+    @Test
+    public void eachCacheIsBoundedBySize() {
+        List<UUID> ids = saveBeers(50);
+        ids.forEach(id -> beerService.getById(id, false));
+
+        Cache<Object, Object> nativeCache = nativeCache(CacheConfig.BEER_CACHE);
+        nativeCache.cleanUp();
+        assertThat(nativeCache.estimatedSize()).isLessThanOrEqualTo(5);
+        assertThat(nativeCache.stats().evictionCount()).isPositive();
+    }
+
+    @Test
+    public void cacheStatsArePublishedAsMetrics() {
+        beerService.getByUpc(BeerLoader.BEER_2_UPC);
+
+        assertThat(meterRegistry.find("cache.gets")
+                .tag("cache", CacheConfig.BEER_UPC_CACHE).tag("result", "hit")
+                .functionCounter().count()).isPositive();
+    }
+
+    private List<UUID> saveBeers(int count) {
+        List<Beer> beers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            beers.add(Beer.builder()
+                    .beerName("Test Beer " + i)
+                    .beerStyle(BeerStyleEnum.values()[i % BeerStyleEnum.values().length])
+                    .upc(UUID.randomUUID().toString())
+                    .price(new BigDecimal("9.99"))
+                    .quantityOnHand(i)
+                    .build());
+        }
+        List<UUID> ids = new ArrayList<>(count);
+        beerRepository.saveAll(beers).forEach(beer -> ids.add(beer.getId()));
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
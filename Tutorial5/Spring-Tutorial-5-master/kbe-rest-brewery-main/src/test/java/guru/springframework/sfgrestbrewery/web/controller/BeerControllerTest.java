@@ -4,18 +4,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import guru.springframework.sfgrestbrewery.bootstrap.BeerLoader;
 import guru.springframework.sfgrestbrewery.services.BeerService;
 import guru.springframework.sfgrestbrewery.web.model.BeerDto;
+import guru.springframework.sfgrestbrewery.web.model.BeerPagedList;
+import guru.springframework.sfgrestbrewery.web.model.BeerSliceList;
+import guru.springframework.sfgrestbrewery.web.model.BeerStyleEnum;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -55,6 +61,38 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$.beerName", is("Beer1")));
     }
 
+    @Test
+    public void listBeersByKeyset() throws Exception {
+        UUID cursor = UUID.randomUUID();
+        given(beerService.listBeersAfter(any(), any(), eq(cursor), eq(10), any()))
+                .willReturn(new BeerSliceList(List.of(validBeer), PageRequest.of(0, 10), true, validBeer.getId()));
+
+        mockMvc.perform(get("/api/v1/beer")
+                        .param("paging", "KEYSET")
+                        .param("cursor", cursor.toString())
+                        .param("pageSize", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", is(validBeer.getId().toString())))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andExpect(jsonPath("$.nextCursor", is(validBeer.getId().toString())))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    public void searchBeersByNamePrefix() throws Exception {
+        given(beerService.searchBeers(eq("gal"), eq(BeerStyleEnum.PALE_ALE), eq(PageRequest.of(0, 25)), eq(false)))
+                .willReturn(new BeerPagedList(List.of(validBeer), PageRequest.of(0, 25), 1));
+
+        mockMvc.perform(get("/api/v1/beer/search")
+                        .param("name", "gal")
+                        .param("beerStyle", "PALE_ALE")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].beerName", is("Beer1")))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
     @Test
     public void handlePost() throws Exception {
         //given